@@ -0,0 +1,95 @@
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/*Runs Engine operations on virtual threads and hands back futures.
+  Every task borrows its own connection through the Engine, and at most
+  maxConcurrency tasks touch the database at once; keep it no larger
+  than the pool behind the data source or tasks will queue there.*/
+public class AsyncEngine implements AutoCloseable {
+    private final Engine engine;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public AsyncEngine(DataSource dataSource, int maxConcurrency) {
+        this(new Engine(dataSource), maxConcurrency);
+    }
+
+    public AsyncEngine(Engine engine, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be positive.");
+        }
+        this.engine = engine;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    public CompletableFuture<VillainRoster> getMinionRoster(long villainId) {
+        return submit(() -> engine
+                .getMinionRosters(Collections.singletonList(villainId))
+                .get(villainId));
+    }
+
+    public CompletableFuture<Map<Long, VillainRoster>> getMinionRosters(Collection<Long> villainIds) {
+        return submit(() -> engine.getMinionRosters(villainIds));
+    }
+
+    public CompletableFuture<List<VillainLeaderboard.Entry>> getTopVillains(int count) {
+        return submit(() -> engine.getTopVillains(count));
+    }
+
+    public CompletableFuture<String> addMinions(Stream<MinionRecord> records) {
+        return submit(() -> engine.addMinions(records));
+    }
+
+    public CompletableFuture<Boolean> deleteMinion(long minionId) {
+        return submit(() -> engine.deleteMinion(minionId));
+    }
+
+    public CompletableFuture<Map<String, String>> upCaseTownNames(List<String> countryNames) {
+        return submit(() -> engine.upCaseTownNames(countryNames));
+    }
+
+    public CompletableFuture<List<MinionUpdater.ChunkReport>> increaseAgeAndTitleCaseNames(
+            Collection<Long> ids) {
+        return submit(() -> engine.increaseAgeAndTitleCaseNames(ids));
+    }
+
+    private <T> CompletableFuture<T> submit(SqlTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return task.call();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /*Stops accepting work and waits for running tasks to finish.*/
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    @FunctionalInterface
+    private interface SqlTask<T> {
+        T call() throws SQLException;
+    }
+}
@@ -1,21 +1,33 @@
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 //TODO: REFACTOR INTO SEPARATE CLASSES
+/*Borrows a connection from the data source for every operation, so a
+  single Engine can be shared between worker threads.*/
 public class Engine implements Runnable {
-    private Connection connection;
+    private static final int MINION_PAGE_SIZE = 500;
 
-    public Engine(Connection connection) {
-        this.connection = connection;
+    private DataSource dataSource;
+    private VillainLeaderboard leaderboard;
+
+    public Engine(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.leaderboard = new VillainLeaderboard();
     }
 
     @Override
     public void run() {
         try {
-            increaseMinionsAge(1);
-            titleCaseMinionNames(1);
+            increaseAgeAndTitleCaseNames(Collections.singletonList(1L))
+                    .forEach(System.out::println);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -23,73 +35,48 @@ public class Engine implements Runnable {
 
     /*Problem 1: Get Villains' Names*/
     private void getVillainsNames() throws SQLException {
-        String query =
-                "SELECT\n" +
-                "       v.name,\n" +
-                "       COUNT(m.id) AS number_of_minions\n" +
-                "FROM villains v\n" +
-                "LEFT JOIN minions_villains mv\n" +
-                "ON v.id = mv.villain_id\n" +
-                "LEFT JOIN minions m\n" +
-                "ON m.id = mv.minion_id\n" +
-                "GROUP BY v.name\n" +
-                "ORDER BY number_of_minions DESC;";
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-        ResultSet resultSet = preparedStatement.executeQuery();
-
-        while (resultSet.next()) {
-            String villainName = resultSet.getString("name");
-            long numOfMinions = resultSet.getInt("number_of_minions");
-
-            System.out.printf("%s %d%n", villainName, numOfMinions);
+        for (VillainLeaderboard.Entry entry : getTopVillains(Integer.MAX_VALUE)) {
+            System.out.printf("%s %d%n", entry.getVillainName(), entry.getMinionCount());
+        }
+    }
+
+    /*Served from memory; the leaderboard is loaded on first use.*/
+    public List<VillainLeaderboard.Entry> getTopVillains(int count) throws SQLException {
+        if (leaderboard.isLoaded()) {
+            return leaderboard.top(count);
+        }
+        List<VillainLeaderboard.Entry> ranking = rebuildLeaderboard();
+        return ranking.subList(0, Math.min(count, ranking.size()));
+    }
+
+    public List<VillainLeaderboard.Entry> rebuildLeaderboard() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return leaderboard.rebuild(connection);
         }
     }
 
     /*Problem 2: Get Minion Names*/
     private void getMinionNames(int villainId) throws SQLException {
-        String query =
-                "SELECT\n" +
-                "       v.name AS villain_name,\n" +
-                "       m.name AS minion_name,\n" +
-                "       m.age AS minion_age\n" +
-                "FROM minions m\n" +
-                "JOIN minions_villains mv\n" +
-                "ON m.id = mv.minion_id\n" +
-                "RIGHT JOIN villains v\n" +
-                "ON v.id = mv.villain_id\n" +
-                "WHERE v.id = ?;";
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-        preparedStatement.setInt(1, villainId);
-
-        ResultSet resultSet = preparedStatement.executeQuery();
-
-        StringBuilder output = new StringBuilder();
-        if (!resultSet.next()) {
-            output.append("No villain with ID ")
-                    .append(villainId)
-                    .append(" exists in the database.");
+        VillainRoster roster = getMinionRosters(Collections.singletonList((long) villainId))
+                .get((long) villainId);
+        if (roster == null) {
+            System.out.println("No villain with ID " + villainId + " exists in the database.");
         } else {
+            System.out.println(roster);
+        }
+    }
 
-            String villainName = resultSet.getString("villain_name");
-
-            output.append("Villain: ")
-                    .append(villainName);
+    public Map<Long, VillainRoster> getMinionRosters(Collection<Long> villainIds) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return new MinionRosterReader(connection).readRosters(villainIds);
+        }
+    }
 
-            int minionCount = 0;
-            String minionName = null;
-            long minionAge = 0;
-            while (resultSet.next()) {
-                minionCount++;
-                minionName = resultSet.getString("minion_name");
-                minionAge = resultSet.getInt("minion_age");
-                output.append(String.format("%n%d. %s %d",
-                        minionCount, minionName, minionAge));
-            }
-            if (minionCount == 0) {
-                output.append("\n <no minions>");
-            }
+    public void getMinionRosters(Collection<Long> villainIds,
+                                 Consumer<VillainRoster> consumer) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            new MinionRosterReader(connection).readRosters(villainIds, consumer);
         }
-        System.out.println(output);
     }
 
     /*Problem 3: Add minion*/
@@ -97,221 +84,257 @@ public class Engine implements Runnable {
                            long minionAge,
                            String townName,
                            String villainName) throws SQLException {
-        final String DEFAULT_EVIL_FACTOR = "evil";
+        try (Connection connection = dataSource.getConnection()) {
+            final String DEFAULT_EVIL_FACTOR = "evil";
 
-        if (!isTownInDb(townName)) {
-            System.out.println(addTown(townName));
-        }
-        if (!isVillainInDb(villainName)) {
-            System.out.println(addVillain(villainName, DEFAULT_EVIL_FACTOR));
+            if (!isTownInDb(connection, townName)) {
+                System.out.println(addTown(connection, townName));
+            }
+            if (!isVillainInDb(connection, villainName)) {
+                System.out.println(addVillain(connection, villainName, DEFAULT_EVIL_FACTOR));
+            }
+
+            String addMinionQuery =
+                    "INSERT INTO minions (name, age)\n" +
+                            "VALUES (?, ?);";
+            try (PreparedStatement preparedStatement = connection.prepareStatement(addMinionQuery)) {
+                preparedStatement.setString(1, minionName);
+                preparedStatement.setLong(2, minionAge);
+                preparedStatement.execute();
+            }
+            System.out.println(setVillainServant(connection, minionName, villainName));
         }
+    }
 
-        String addMinionQuery =
-                "INSERT INTO minions (name, age)\n" +
-                        "VALUES (?, ?);";
-        PreparedStatement preparedStatement = connection.prepareStatement(addMinionQuery);
-        preparedStatement.setString(1, minionName);
-        preparedStatement.setLong(2, minionAge);
-        preparedStatement.execute();
-        System.out.println(setVillainServant(minionName, villainName));
+    public String addMinions(Stream<MinionRecord> records) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            MinionImporter importer = new MinionImporter(
+                    connection, MinionImporter.DEFAULT_CHUNK_SIZE, leaderboard);
+            try (Stream<MinionRecord> stream = records) {
+                importer.importMinions(stream.iterator());
+            }
+            return importer.toString();
+        }
     }
 
-    private String setVillainServant(String minionName, String villainName) throws SQLException {
-        String response = null;
+    private String setVillainServant(Connection connection, String minionName, String villainName) throws SQLException {
         String getMinionIdQuery =
                 "SELECT id\n" +
                         "FROM minions\n" +
                         "WHERE name = ?;";
-        PreparedStatement preparedStatement = connection.prepareStatement(getMinionIdQuery);
-        preparedStatement.setString(1, minionName);
-        ResultSet resultSet = preparedStatement.executeQuery();
-        if (resultSet.next()) {
-            long minionId = resultSet.getInt("id");
-
-            String getVillainIdQuery =
-                    "SELECT id\n" +
-                            "FROM villains\n" +
-                            "WHERE name = ?;";
-            preparedStatement = connection.prepareStatement(getVillainIdQuery);
-            preparedStatement.setString(1, villainName);
-            resultSet = preparedStatement.executeQuery();
+        long minionId = findIdByName(connection, getMinionIdQuery, minionName);
+        if (minionId == -1) {
+            return "Minion not found.";
+        }
 
-            if (resultSet.next()) {
-                long villainId = resultSet.getInt("id");
+        String getVillainIdQuery =
+                "SELECT id\n" +
+                        "FROM villains\n" +
+                        "WHERE name = ?;";
+        long villainId = findIdByName(connection, getVillainIdQuery, villainName);
+        if (villainId == -1) {
+            return "Villain not found.";
+        }
 
-                String setServantQuery =
-                        "INSERT IGNORE INTO minions_villains (minion_id, villain_id)\n" +
-                                "VALUES (?, ?);";
-                preparedStatement = connection.prepareStatement(setServantQuery);
-                preparedStatement.setLong(1, minionId);
-                preparedStatement.setLong(2, villainId);
-                preparedStatement.execute();
-                response = String.format("Successfully added %s to be minion of %s.%n",
-                        minionName, villainName);
-            } else {
-                response = "Villain not found.";
+        String setServantQuery =
+                "INSERT IGNORE INTO minions_villains (minion_id, villain_id)\n" +
+                        "VALUES (?, ?);";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(setServantQuery)) {
+            preparedStatement.setLong(1, minionId);
+            preparedStatement.setLong(2, villainId);
+            leaderboard.recordLinks(villainId, villainName, preparedStatement.executeUpdate());
+        }
+        return String.format("Successfully added %s to be minion of %s.%n",
+                minionName, villainName);
+    }
+
+    private long findIdByName(Connection connection, String query, String name) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            preparedStatement.setString(1, name);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong("id") : -1;
             }
-        } else {
-            response = "Minion not found.";
         }
-        return response;
     }
 
-    private String addVillain(String villainName, String evilFactor) throws SQLException {
+    public boolean deleteMinion(long minionId) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                List<Long> villainIds = new ArrayList<>();
+                try (PreparedStatement preparedStatement = connection.prepareStatement(
+                        "SELECT villain_id\n" +
+                        "FROM minions_villains\n" +
+                        "WHERE minion_id = ?;")) {
+                    preparedStatement.setLong(1, minionId);
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            villainIds.add(resultSet.getLong("villain_id"));
+                        }
+                    }
+                }
+
+                try (PreparedStatement preparedStatement = connection.prepareStatement(
+                        "DELETE FROM minions_villains\n" +
+                        "WHERE minion_id = ?;")) {
+                    preparedStatement.setLong(1, minionId);
+                    preparedStatement.executeUpdate();
+                }
+
+                boolean deleted;
+                try (PreparedStatement preparedStatement = connection.prepareStatement(
+                        "DELETE FROM minions\n" +
+                        "WHERE id = ?;")) {
+                    preparedStatement.setLong(1, minionId);
+                    deleted = preparedStatement.executeUpdate() > 0;
+                }
+                connection.commit();
+
+                for (Long villainId : villainIds) {
+                    leaderboard.recordLinks(villainId, null, -1);
+                }
+                return deleted;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private String addVillain(Connection connection, String villainName, String evilFactor) throws SQLException {
         String query =
                 "INSERT INTO villains (name, evil_factor)\n" +
                         "VALUES (?, ?);";
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-        preparedStatement.setString(1, villainName);
-        preparedStatement.setString(2, evilFactor);
-        preparedStatement.execute();
+        try (PreparedStatement preparedStatement =
+                     connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            preparedStatement.setString(1, villainName);
+            preparedStatement.setString(2, evilFactor);
+            preparedStatement.execute();
+            try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+                if (keys.next()) {
+                    leaderboard.recordLinks(keys.getLong(1), villainName, 0);
+                }
+            }
+        }
 
         return String.format("Villain %s was added to the database", villainName);
     }
 
-    private boolean isVillainInDb(String villainName) throws SQLException {
+    private boolean isVillainInDb(Connection connection, String villainName) throws SQLException {
         String query =
                 "SELECT id\n" +
                         "FROM villains\n" +
                         "WHERE name = ?;";
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-        preparedStatement.setString(1, villainName);
-        ResultSet resultSet = preparedStatement.executeQuery();
-        return resultSet.next();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            preparedStatement.setString(1, villainName);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
     }
 
-    private String addTown(String townName) throws SQLException {
+    private String addTown(Connection connection, String townName) throws SQLException {
         String query =
                 "INSERT INTO towns(name)\n" +
                         "VALUES (?);";
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-        preparedStatement.setString(1, townName);
-        preparedStatement.execute();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            preparedStatement.setString(1, townName);
+            preparedStatement.execute();
+        }
         return String.format("Town %s was added to the database.", townName);
     }
 
-    private boolean isTownInDb(String townName) throws SQLException {
+    private boolean isTownInDb(Connection connection, String townName) throws SQLException {
         String query =
                 "SELECT id\n" +
                         "FROM towns\n" +
                         "WHERE name = ?;";
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-        preparedStatement.setString(1, townName);
-        ResultSet resultSet = preparedStatement.executeQuery();
-        return resultSet.next();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            preparedStatement.setString(1, townName);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
     }
 
     /*Problem 4: Change town names casing*/
 
     private String upCaseTownNames(String countryName) throws SQLException {
-        if (!isCountryInDb(countryName)) {
-            return "No such country is present in the database.";
-        }
-
-        String townsToUpdateQuery =
-                "SELECT UPPER(t.name) AS town_name\n" +
-                "FROM towns t\n" +
-                "       JOIN countries c\n" +
-                "            ON t.country_id = c.id\n" +
-                "WHERE c.name = ? AND\n" +
-                "      BINARY(t.name) NOT LIKE BINARY(UPPER(t.name));";
-        PreparedStatement preparedStatement = connection.prepareStatement(townsToUpdateQuery);
-        preparedStatement.setString(1, countryName);
-
-        ResultSet resultSet = preparedStatement.executeQuery();
-        StringBuilder affectedTownsReport = new StringBuilder();
-        if (!resultSet.next()) {
-            affectedTownsReport.append("No town names were affected.");
-            return affectedTownsReport.toString();
-        } else {
-            int townCount = 1;
-            affectedTownsReport
-                    .append("[")
-                    .append(resultSet.getString("town_name"));
-            while (resultSet.next()) {
-                affectedTownsReport
-                        .append(", ")
-                        .append(resultSet.getString("town_name"));
-                townCount++;
-            }
-            affectedTownsReport.append("]");
-            affectedTownsReport.insert(
-                    0,
-                    townCount + " town names were affected.\n");
-
-            String updateTownNamesQuery =
-                    "UPDATE towns t\n" +
-                    "JOIN countries c\n" +
-                    "ON t.country_id = c.id\n" +
-                    "SET t.name = UPPER(t.name)\n" +
-                    "WHERE c.name = ? AND\n" +
-                    "      BINARY(t.name) NOT LIKE BINARY(UPPER(t.name));";
-            preparedStatement = connection.prepareStatement(updateTownNamesQuery);
-            preparedStatement.setString(1, countryName);
-            preparedStatement.execute();
-
-            return affectedTownsReport.toString();
-        }
+        return upCaseTownNames(Collections.singletonList(countryName)).get(countryName);
     }
 
-    private boolean isCountryInDb(String countryName) throws SQLException {
-        String query =
-                "SELECT id\n" +
-                "FROM countries\n" +
-                "WHERE name = ?;";
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-        preparedStatement.setString(1, countryName);
-        ResultSet resultSet = preparedStatement.executeQuery();
-        return resultSet.next();
+    public Map<String, String> upCaseTownNames(List<String> countryNames) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return new TownNameUpdater(connection).upCaseTownNames(countryNames);
+        }
     }
 
     /*Problem 7: Print all minion names*/
     private void printAllMinionNames() throws SQLException {
-        String queryString =
-                "SELECT name\n" +
-                "FROM minions;";
-        List<String> minionNames = new ArrayList<>();
-
-        ResultSet resultSet = connection
-                .prepareStatement(queryString)
-                .executeQuery();
-        while(resultSet.next()) {
-            minionNames.add(resultSet.getString("name"));
-        }
+        printAllMinionNames(MINION_PAGE_SIZE);
+    }
 
-        int left = 0, right = minionNames.size() - 1;
-        for (int i = 1; i < minionNames.size() + 1; i++) {
-            if (i % 2 == 0) {
-                System.out.println(minionNames.get(right--));
-            } else {
-                System.out.println(minionNames.get(left++));
+    /*Prints first, last, second, second to last... by walking the
+      table from both ends until the two cursors meet.*/
+    private void printAllMinionNames(int pageSize) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            MinionNameCursor first = new MinionNameCursor(connection, true, pageSize);
+            MinionNameCursor last = new MinionNameCursor(connection, false, pageSize);
+
+            boolean fromStart = true;
+            while (true) {
+                String name = fromStart
+                        ? first.next(last.getPosition())
+                        : last.next(first.getPosition());
+                if (name == null) {
+                    break;
+                }
+                System.out.println(name);
+                fromStart = !fromStart;
             }
         }
-
     }
 
     /*Problem 8: Increase minions' age*/
     private void increaseMinionsAge(long id) throws SQLException {
-        String queryString =
-                "UPDATE minions\n" +
-                "SET age = age + 1\n" +
-                "WHERE id = ?;";
-        PreparedStatement preparedStatement =
-                connection.prepareStatement(queryString);
-        preparedStatement.setLong(1, id);
-        preparedStatement.execute();
+        try (Connection connection = dataSource.getConnection()) {
+            String queryString =
+                    "UPDATE minions\n" +
+                    "SET age = age + 1\n" +
+                    "WHERE id = ?;";
+            try (PreparedStatement preparedStatement =
+                         connection.prepareStatement(queryString)) {
+                preparedStatement.setLong(1, id);
+                preparedStatement.execute();
+            }
+        }
     }
 
     private void titleCaseMinionNames(long id) throws SQLException {
-        String queryString =
-                "UPDATE minions\n" +
-                "SET name = concat(\n" +
-                "  UCASE(LEFT(name, 1)),\n" +
-                "  LCASE(SUBSTRING(name, 2)))\n" +
-                "WHERE id = ?;";
-        PreparedStatement preparedStatement =
-                connection.prepareStatement(queryString);
-        preparedStatement.setLong(1, id);
-        preparedStatement.execute();
+        try (Connection connection = dataSource.getConnection()) {
+            String queryString =
+                    "UPDATE minions\n" +
+                    "SET name = concat(\n" +
+                    "  UCASE(LEFT(name, 1)),\n" +
+                    "  LCASE(SUBSTRING(name, 2)))\n" +
+                    "WHERE id = ?;";
+            try (PreparedStatement preparedStatement =
+                         connection.prepareStatement(queryString)) {
+                preparedStatement.setLong(1, id);
+                preparedStatement.execute();
+            }
+        }
+    }
+
+    public List<MinionUpdater.ChunkReport> increaseAgeAndTitleCaseNames(
+            Collection<Long> ids) throws SQLException {
+        return increaseAgeAndTitleCaseNames(ids, MinionUpdater.DEFAULT_CHUNK_SIZE);
+    }
+
+    public List<MinionUpdater.ChunkReport> increaseAgeAndTitleCaseNames(
+            Collection<Long> ids, int chunkSize) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return new MinionUpdater(connection, chunkSize).increaseAgeAndTitleCaseNames(ids);
+        }
     }
 }
@@ -1,15 +1,23 @@
-import java.sql.*;
+import com.company.jdbc.DriverManagerDataSource;
+import com.company.jdbc.InstrumentedDataSource;
+import com.company.jdbc.PooledDataSource;
+import com.company.jdbc.QueryMetrics;
+
 import java.util.Properties;
 
 public class Main {
-    public static void main(String[] args) throws SQLException {
+    public static void main(String[] args) {
         String connectionString = "jdbc:mysql://localhost:3306/MinionsDB";
         Properties properties = new Properties();
         properties.setProperty("user", DbAccessConstants.DB_USER);
         properties.setProperty("password", DbAccessConstants.DB_PSWD);
-        try (Connection connection = DriverManager.getConnection(connectionString, properties)) {
-            Engine engine = new Engine(connection);
+        properties.setProperty("rewriteBatchedStatements", "true");
+        try (PooledDataSource pool = new PooledDataSource(
+                new DriverManagerDataSource(connectionString, properties));
+             QueryMetrics metrics = new QueryMetrics()) {
+            Engine engine = new Engine(new InstrumentedDataSource(pool, metrics));
             engine.run();
+            metrics.dump(System.out);
         }
     }
 }
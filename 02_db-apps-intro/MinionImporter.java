@@ -0,0 +1,292 @@
+import com.company.jdbc.QueryUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/*Bulk version of Engine.addMinion. Records are imported in chunks;
+  every chunk resolves its towns and villains with one IN query each,
+  inserts whatever is missing in a single batch and commits once.
+  Batches only turn into multi-row inserts on MySQL when the connection
+  is opened with rewriteBatchedStatements=true.
+  Names are matched the way MySQL's default collation compares them,
+  ignoring case and trailing spaces, so a town or villain the database
+  holds in another spelling is reused rather than inserted again.*/
+public class MinionImporter {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final String DEFAULT_EVIL_FACTOR = "evil";
+    private static final Comparator<String> NAME_ORDER = Comparator
+            .comparing(MinionImporter::withoutTrailingSpaces, String.CASE_INSENSITIVE_ORDER);
+
+    private final Connection connection;
+    private final int chunkSize;
+    private final VillainLeaderboard leaderboard;
+    private long townsAdded;
+    private long villainsAdded;
+    private long minionsAdded;
+
+    public MinionImporter(Connection connection) {
+        this(connection, DEFAULT_CHUNK_SIZE);
+    }
+
+    public MinionImporter(Connection connection, int chunkSize) {
+        this(connection, chunkSize, null);
+    }
+
+    /*The leaderboard, if given, is updated after every committed chunk.*/
+    public MinionImporter(Connection connection, int chunkSize, VillainLeaderboard leaderboard) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.connection = connection;
+        this.chunkSize = chunkSize;
+        this.leaderboard = leaderboard;
+    }
+
+    public long importMinions(Iterator<MinionRecord> records) throws SQLException {
+        long imported = 0;
+        List<MinionRecord> chunk = new ArrayList<>(chunkSize);
+        while (records.hasNext()) {
+            chunk.add(records.next());
+            if (chunk.size() == chunkSize) {
+                imported += importChunk(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += importChunk(chunk);
+        }
+        return imported;
+    }
+
+    private int importChunk(List<MinionRecord> chunk) throws SQLException {
+        Set<String> townNames = new TreeSet<>(NAME_ORDER);
+        Set<String> villainNames = new TreeSet<>(NAME_ORDER);
+        for (MinionRecord record : chunk) {
+            validate(record);
+            townNames.add(record.getTownName());
+            villainNames.add(record.getVillainName());
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            Map<String, Long> townIds = findIdsByName("towns", townNames);
+            int newTowns = insertMissingTowns(townNames, townIds);
+            Map<String, Long> villainIds = findIdsByName("villains", villainNames);
+            int newVillains = insertMissingVillains(villainNames, villainIds);
+            long[] minionIds = insertMinions(chunk, townIds);
+            linkMinionsToVillains(chunk, minionIds, villainIds);
+
+            connection.commit();
+            recordLinks(chunk, villainIds);
+            townsAdded += newTowns;
+            villainsAdded += newVillains;
+            minionsAdded += chunk.size();
+            return chunk.size();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void validate(MinionRecord record) {
+        if (record.getName() == null || record.getTownName() == null
+                || record.getVillainName() == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Minion %s needs a name, a town and a villain.", record.getName()));
+        }
+        if (record.getAge() < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Minion %s has a negative age.", record.getName()));
+        }
+    }
+
+    /*Inserts the towns that townIds has no id for and adds their ids.
+      Returns the number of towns inserted.*/
+    private int insertMissingTowns(Set<String> townNames,
+                                   Map<String, Long> townIds) throws SQLException {
+        List<String> missing = missingNames(townNames, townIds);
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        String query =
+                "INSERT INTO towns (name)\n" +
+                "VALUES (?);";
+        try (PreparedStatement preparedStatement =
+                     connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            for (String townName : missing) {
+                preparedStatement.setString(1, townName);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            putGeneratedIds(preparedStatement, missing, townIds);
+        }
+        return missing.size();
+    }
+
+    private int insertMissingVillains(Set<String> villainNames,
+                                      Map<String, Long> villainIds) throws SQLException {
+        List<String> missing = missingNames(villainNames, villainIds);
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        String query =
+                "INSERT INTO villains (name, evil_factor)\n" +
+                "VALUES (?, ?);";
+        try (PreparedStatement preparedStatement =
+                     connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            for (String villainName : missing) {
+                preparedStatement.setString(1, villainName);
+                preparedStatement.setString(2, DEFAULT_EVIL_FACTOR);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            putGeneratedIds(preparedStatement, missing, villainIds);
+        }
+        return missing.size();
+    }
+
+    private long[] insertMinions(List<MinionRecord> chunk,
+                                 Map<String, Long> townIds) throws SQLException {
+        String query =
+                "INSERT INTO minions (name, age, town_id)\n" +
+                "VALUES (?, ?, ?);";
+        try (PreparedStatement preparedStatement =
+                     connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            for (MinionRecord record : chunk) {
+                preparedStatement.setString(1, record.getName());
+                preparedStatement.setLong(2, record.getAge());
+                preparedStatement.setLong(3, townIds.get(record.getTownName()));
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            return readGeneratedKeys(preparedStatement, chunk.size());
+        }
+    }
+
+    private void linkMinionsToVillains(List<MinionRecord> chunk,
+                                       long[] minionIds,
+                                       Map<String, Long> villainIds) throws SQLException {
+        String query =
+                "INSERT IGNORE INTO minions_villains (minion_id, villain_id)\n" +
+                "VALUES (?, ?);";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                preparedStatement.setLong(1, minionIds[i]);
+                preparedStatement.setLong(2, villainIds.get(chunk.get(i).getVillainName()));
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+    }
+
+    private void recordLinks(List<MinionRecord> chunk, Map<String, Long> villainIds) {
+        if (leaderboard == null) {
+            return;
+        }
+        Map<String, Long> linksPerVillain = new TreeMap<>(NAME_ORDER);
+        for (MinionRecord record : chunk) {
+            linksPerVillain.merge(record.getVillainName(), 1L, Long::sum);
+        }
+        linksPerVillain.forEach((villainName, links) ->
+                leaderboard.recordLinks(villainIds.get(villainName), villainName, links));
+    }
+
+    private Map<String, Long> findIdsByName(String table, Collection<String> names) throws SQLException {
+        String query =
+                "SELECT id, name\n" +
+                "FROM " + table + "\n" +
+                "WHERE name IN (" + QueryUtils.placeholders(names.size()) + ");";
+        Map<String, Long> ids = new TreeMap<>(NAME_ORDER);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            int index = 1;
+            for (String name : names) {
+                preparedStatement.setString(index++, name);
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.putIfAbsent(resultSet.getString("name"), resultSet.getLong("id"));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static List<String> missingNames(Set<String> names, Map<String, Long> ids) {
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            if (!ids.containsKey(name)) {
+                missing.add(name);
+            }
+        }
+        return missing;
+    }
+
+    private static void putGeneratedIds(PreparedStatement preparedStatement,
+                                        List<String> names,
+                                        Map<String, Long> ids) throws SQLException {
+        long[] generatedIds = readGeneratedKeys(preparedStatement, names.size());
+        for (int i = 0; i < generatedIds.length; i++) {
+            ids.put(names.get(i), generatedIds[i]);
+        }
+    }
+
+    /*MySQL's PAD SPACE collations ignore trailing spaces in comparisons.*/
+    private static String withoutTrailingSpaces(String name) {
+        int end = name.length();
+        while (end > 0 && name.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return name.substring(0, end);
+    }
+
+    private static long[] readGeneratedKeys(PreparedStatement preparedStatement,
+                                            int expected) throws SQLException {
+        long[] ids = new long[expected];
+        int count = 0;
+        try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+            while (keys.next() && count < expected) {
+                ids[count++] = keys.getLong(1);
+            }
+        }
+        if (count != expected) {
+            throw new SQLException(String.format(
+                    "Expected %d generated keys but the driver returned %d.", expected, count));
+        }
+        return ids;
+    }
+
+    public long getTownsAdded() {
+        return townsAdded;
+    }
+
+    public long getVillainsAdded() {
+        return villainsAdded;
+    }
+
+    public long getMinionsAdded() {
+        return minionsAdded;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d minions imported, %d towns and %d villains added.",
+                minionsAdded, townsAdded, villainsAdded);
+    }
+}
@@ -0,0 +1,83 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/*Walks the minions table by id in one direction, one page at a time.
+  Every page is a fresh keyset query bounded by the opposite cursor's
+  position, so no more than pageSize rows are held at once.*/
+public class MinionNameCursor {
+    private static final String ASCENDING_QUERY =
+            "SELECT id, name\n" +
+            "FROM minions\n" +
+            "WHERE id > ? AND id < ?\n" +
+            "ORDER BY id\n" +
+            "LIMIT ?;";
+    private static final String DESCENDING_QUERY =
+            "SELECT id, name\n" +
+            "FROM minions\n" +
+            "WHERE id < ? AND id > ?\n" +
+            "ORDER BY id DESC\n" +
+            "LIMIT ?;";
+
+    private final Connection connection;
+    private final boolean ascending;
+    private final int pageSize;
+    private final long[] ids;
+    private final String[] names;
+    private int head;
+    private int size;
+    private long position;
+    private boolean exhausted;
+
+    public MinionNameCursor(Connection connection, boolean ascending, int pageSize) {
+        this.connection = connection;
+        this.ascending = ascending;
+        this.pageSize = pageSize;
+        this.ids = new long[pageSize];
+        this.names = new String[pageSize];
+        this.position = ascending ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+
+    /*Moves to the next row strictly before the given bound and
+      returns its name, or null once the bound has been reached.*/
+    public String next(long bound) throws SQLException {
+        if (head == size && !exhausted) {
+            fetchPage(bound);
+        }
+        if (head == size) {
+            return null;
+        }
+        long id = ids[head];
+        if (ascending ? id >= bound : id <= bound) {
+            return null;
+        }
+        position = id;
+        String name = names[head];
+        names[head++] = null;
+        return name;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    private void fetchPage(long bound) throws SQLException {
+        try (PreparedStatement preparedStatement =
+                     connection.prepareStatement(ascending ? ASCENDING_QUERY : DESCENDING_QUERY)) {
+            preparedStatement.setLong(1, position);
+            preparedStatement.setLong(2, bound);
+            preparedStatement.setInt(3, pageSize);
+            preparedStatement.setFetchSize(pageSize);
+            head = 0;
+            size = 0;
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids[size] = resultSet.getLong("id");
+                    names[size++] = resultSet.getString("name");
+                }
+            }
+        }
+        exhausted = size < pageSize;
+    }
+}
@@ -0,0 +1,29 @@
+public class MinionRecord {
+    private final String name;
+    private final long age;
+    private final String townName;
+    private final String villainName;
+
+    public MinionRecord(String name, long age, String townName, String villainName) {
+        this.name = name;
+        this.age = age;
+        this.townName = townName;
+        this.villainName = villainName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAge() {
+        return age;
+    }
+
+    public String getTownName() {
+        return townName;
+    }
+
+    public String getVillainName() {
+        return villainName;
+    }
+}
@@ -0,0 +1,93 @@
+import com.company.jdbc.QueryUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/*Loads the minions of many villains with one query per chunk of ids.
+  Rows come back ordered by villain, so each roster is handed to the
+  consumer as soon as the next villain starts.*/
+public class MinionRosterReader {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final Connection connection;
+    private final int chunkSize;
+
+    public MinionRosterReader(Connection connection) {
+        this(connection, DEFAULT_CHUNK_SIZE);
+    }
+
+    public MinionRosterReader(Connection connection, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.connection = connection;
+        this.chunkSize = chunkSize;
+    }
+
+    public Map<Long, VillainRoster> readRosters(Collection<Long> villainIds) throws SQLException {
+        Map<Long, VillainRoster> rosters = new LinkedHashMap<>();
+        readRosters(villainIds, roster -> rosters.put(roster.getVillainId(), roster));
+        return rosters;
+    }
+
+    /*Villains that do not exist are skipped.*/
+    public void readRosters(Collection<Long> villainIds, Consumer<VillainRoster> consumer) throws SQLException {
+        List<Long> ids = new ArrayList<>(new TreeSet<>(villainIds));
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            readChunk(ids.subList(from, Math.min(from + chunkSize, ids.size())), consumer);
+        }
+    }
+
+    private void readChunk(List<Long> chunk, Consumer<VillainRoster> consumer) throws SQLException {
+        String query =
+                "SELECT\n" +
+                "       v.id AS villain_id,\n" +
+                "       v.name AS villain_name,\n" +
+                "       m.id AS minion_id,\n" +
+                "       m.name AS minion_name,\n" +
+                "       m.age AS minion_age\n" +
+                "FROM villains v\n" +
+                "LEFT JOIN minions_villains mv\n" +
+                "ON v.id = mv.villain_id\n" +
+                "LEFT JOIN minions m\n" +
+                "ON m.id = mv.minion_id\n" +
+                "WHERE v.id IN (" + QueryUtils.placeholders(chunk.size()) + ")\n" +
+                "ORDER BY v.id, m.id;";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                preparedStatement.setLong(i + 1, chunk.get(i));
+            }
+            preparedStatement.setFetchSize(chunkSize);
+
+            VillainRoster roster = null;
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    long villainId = resultSet.getLong("villain_id");
+                    if (roster == null || roster.getVillainId() != villainId) {
+                        if (roster != null) {
+                            consumer.accept(roster);
+                        }
+                        roster = new VillainRoster(villainId, resultSet.getString("villain_name"));
+                    }
+                    resultSet.getLong("minion_id");
+                    if (!resultSet.wasNull()) {
+                        roster.addMinion(resultSet.getString("minion_name"),
+                                resultSet.getLong("minion_age"));
+                    }
+                }
+            }
+            if (roster != null) {
+                consumer.accept(roster);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import com.company.jdbc.QueryUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*Applies the Problem 8 changes (age + 1 and title-cased name) to many
+  minions at once: one UPDATE per chunk of ids, all chunks inside a
+  single transaction.*/
+public class MinionUpdater {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final Connection connection;
+    private final int chunkSize;
+
+    public MinionUpdater(Connection connection) {
+        this(connection, DEFAULT_CHUNK_SIZE);
+    }
+
+    public MinionUpdater(Connection connection, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.connection = connection;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<ChunkReport> increaseAgeAndTitleCaseNames(Collection<Long> ids) throws SQLException {
+        List<Long> idList = new ArrayList<>(ids);
+        List<ChunkReport> reports = new ArrayList<>();
+        if (idList.isEmpty()) {
+            return reports;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int from = 0; from < idList.size(); from += chunkSize) {
+                List<Long> chunk = idList.subList(from, Math.min(from + chunkSize, idList.size()));
+                long start = System.nanoTime();
+                int rowsAffected = updateChunk(chunk);
+                reports.add(new ChunkReport(reports.size() + 1, chunk.size(),
+                        rowsAffected, System.nanoTime() - start));
+            }
+            connection.commit();
+            return reports;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private int updateChunk(List<Long> chunk) throws SQLException {
+        String query =
+                "UPDATE minions\n" +
+                "SET age = age + 1,\n" +
+                "    name = concat(\n" +
+                "      UCASE(LEFT(name, 1)),\n" +
+                "      LCASE(SUBSTRING(name, 2)))\n" +
+                "WHERE id IN (" + QueryUtils.placeholders(chunk.size()) + ");";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                preparedStatement.setLong(i + 1, chunk.get(i));
+            }
+            return preparedStatement.executeUpdate();
+        }
+    }
+
+    public static class ChunkReport {
+        private final int chunkNumber;
+        private final int idCount;
+        private final int rowsAffected;
+        private final long elapsedNanos;
+
+        public ChunkReport(int chunkNumber, int idCount, int rowsAffected, long elapsedNanos) {
+            this.chunkNumber = chunkNumber;
+            this.idCount = idCount;
+            this.rowsAffected = rowsAffected;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getChunkNumber() {
+            return chunkNumber;
+        }
+
+        public int getIdCount() {
+            return idCount;
+        }
+
+        public int getRowsAffected() {
+            return rowsAffected;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Chunk %d: %d ids, %d rows affected in %.3f ms",
+                    chunkNumber, idCount, rowsAffected, elapsedNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import com.company.jdbc.QueryUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*Upper-cases the town names of several countries in one transaction.
+  The towns to change are selected and locked once with FOR UPDATE;
+  the report and the UPDATE are both built from that row set, so
+  nothing can slip in between reading and writing.*/
+public class TownNameUpdater {
+    private static final int UPDATE_CHUNK_SIZE = 1000;
+
+    private final Connection connection;
+
+    public TownNameUpdater(Connection connection) {
+        this.connection = connection;
+    }
+
+    /*Returns one report per requested country, in the order given.*/
+    public Map<String, String> upCaseTownNames(Collection<String> countryNames) throws SQLException {
+        Set<String> requested = new LinkedHashSet<>(countryNames);
+        Map<String, String> reports = new LinkedHashMap<>();
+        if (requested.isEmpty()) {
+            return reports;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            Map<String, List<Long>> countryIds = findCountryIds(requested);
+            Map<Long, List<String>> townsByCountry = new HashMap<>();
+            List<Long> townIds = new ArrayList<>();
+            if (!countryIds.isEmpty()) {
+                lockTownsToUpdate(countryIds, townsByCountry, townIds);
+                updateTowns(townIds);
+            }
+            connection.commit();
+
+            for (String countryName : requested) {
+                reports.put(countryName, buildReport(countryIds.get(countryName), townsByCountry));
+            }
+            return reports;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private Map<String, List<Long>> findCountryIds(Set<String> countryNames) throws SQLException {
+        String query =
+                "SELECT id, name\n" +
+                "FROM countries\n" +
+                "WHERE name IN (" + QueryUtils.placeholders(countryNames.size()) + ");";
+        Map<String, List<Long>> countryIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            int index = 1;
+            for (String countryName : countryNames) {
+                preparedStatement.setString(index++, countryName);
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    countryIds
+                            .computeIfAbsent(resultSet.getString("name"), name -> new ArrayList<>())
+                            .add(resultSet.getLong("id"));
+                }
+            }
+        }
+        return countryIds;
+    }
+
+    private void lockTownsToUpdate(Map<String, List<Long>> countryIds,
+                                   Map<Long, List<String>> townsByCountry,
+                                   List<Long> townIds) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        countryIds.values().forEach(ids::addAll);
+
+        String query =
+                "SELECT t.id, t.country_id, UPPER(t.name) AS town_name\n" +
+                "FROM towns t\n" +
+                "WHERE t.country_id IN (" + QueryUtils.placeholders(ids.size()) + ") AND\n" +
+                "      BINARY(t.name) NOT LIKE BINARY(UPPER(t.name))\n" +
+                "ORDER BY t.id\n" +
+                "FOR UPDATE;";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            for (int i = 0; i < ids.size(); i++) {
+                preparedStatement.setLong(i + 1, ids.get(i));
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    townIds.add(resultSet.getLong("id"));
+                    townsByCountry
+                            .computeIfAbsent(resultSet.getLong("country_id"), id -> new ArrayList<>())
+                            .add(resultSet.getString("town_name"));
+                }
+            }
+        }
+    }
+
+    private void updateTowns(List<Long> townIds) throws SQLException {
+        for (int from = 0; from < townIds.size(); from += UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = townIds.subList(from, Math.min(from + UPDATE_CHUNK_SIZE, townIds.size()));
+            String query =
+                    "UPDATE towns\n" +
+                    "SET name = UPPER(name)\n" +
+                    "WHERE id IN (" + QueryUtils.placeholders(chunk.size()) + ");";
+            try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    preparedStatement.setLong(i + 1, chunk.get(i));
+                }
+                preparedStatement.executeUpdate();
+            }
+        }
+    }
+
+    private static String buildReport(List<Long> countryIds,
+                                      Map<Long, List<String>> townsByCountry) {
+        if (countryIds == null) {
+            return "No such country is present in the database.";
+        }
+        List<String> towns = new ArrayList<>();
+        for (Long countryId : countryIds) {
+            towns.addAll(townsByCountry.getOrDefault(countryId, new ArrayList<>()));
+        }
+        if (towns.isEmpty()) {
+            return "No town names were affected.";
+        }
+        return towns.size() + " town names were affected.\n" + towns;
+    }
+}
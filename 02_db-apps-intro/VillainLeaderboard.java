@@ -0,0 +1,177 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*Villain -> minion count, kept sorted in memory. Loaded with one
+  aggregate query and then kept current by the code paths that write
+  to villains and minions_villains, so top-N reads never hit the
+  database.
+  Counts are per villain id: two villains sharing a name are listed
+  separately, where the original GROUP BY v.name merged them. Every
+  minions_villains row references an existing minion, so counting
+  mv.minion_id gives the same numbers as the old COUNT(m.id) without
+  joining minions.
+  The query runs outside the lock, and the lock is a ReentrantLock
+  rather than a monitor, so AsyncEngine's virtual threads are not pinned
+  to their carriers.*/
+public class VillainLeaderboard {
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingLong(Entry::getMinionCount).reversed()
+            .thenComparing(Entry::getVillainName)
+            .thenComparingLong(Entry::getVillainId);
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean loaded;
+    private long changeEpoch;
+
+    public boolean isLoaded() {
+        lock.lock();
+        try {
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*Reads the current database state and returns it, ranked. A change
+      recorded while the query ran may or may not be part of the result,
+      so in that case the result is returned but not kept, and the
+      leaderboard stays as it was.*/
+    public List<Entry> rebuild(Connection connection) throws SQLException {
+        String query =
+                "SELECT\n" +
+                "       v.id,\n" +
+                "       v.name,\n" +
+                "       COUNT(mv.minion_id) AS number_of_minions\n" +
+                "FROM villains v\n" +
+                "LEFT JOIN minions_villains mv\n" +
+                "ON v.id = mv.villain_id\n" +
+                "GROUP BY v.id, v.name;";
+        long epoch;
+        lock.lock();
+        try {
+            epoch = changeEpoch;
+        } finally {
+            lock.unlock();
+        }
+        TreeSet<Entry> read = new TreeSet<>(RANKING);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                read.add(new Entry(resultSet.getLong("id"),
+                        resultSet.getString("name"),
+                        resultSet.getLong("number_of_minions")));
+            }
+        }
+        lock.lock();
+        try {
+            if (epoch == changeEpoch) {
+                entries.clear();
+                ranking.clear();
+                for (Entry entry : read) {
+                    entries.put(entry.villainId, entry);
+                }
+                ranking.addAll(read);
+                loaded = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return new ArrayList<>(read);
+    }
+
+    /*Applies committed changes to villains and minions_villains. A
+      negative delta means links were removed; a zero delta registers a
+      villain that has no minions yet. Only counted once a rebuild has
+      been kept.*/
+    public void recordLinks(long villainId, String villainName, long delta) {
+        lock.lock();
+        try {
+            changeEpoch++;
+            if (!loaded) {
+                return;
+            }
+            Entry current = entries.get(villainId);
+            if (current == null) {
+                if (villainName == null) {
+                    return;
+                }
+                current = new Entry(villainId, villainName, 0);
+            } else if (delta == 0) {
+                return;
+            } else {
+                ranking.remove(current);
+            }
+            Entry updated = new Entry(villainId, current.villainName,
+                    Math.max(0, current.minionCount + delta));
+            entries.put(villainId, updated);
+            ranking.add(updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Entry> top(int count) {
+        lock.lock();
+        try {
+            List<Entry> top = new ArrayList<>(Math.min(count, ranking.size()));
+            for (Entry entry : ranking) {
+                if (top.size() == count) {
+                    break;
+                }
+                top.add(entry);
+            }
+            return top;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static final class Entry {
+        private final long villainId;
+        private final String villainName;
+        private final long minionCount;
+
+        private Entry(long villainId, String villainName, long minionCount) {
+            this.villainId = villainId;
+            this.villainName = villainName;
+            this.minionCount = minionCount;
+        }
+
+        public long getVillainId() {
+            return villainId;
+        }
+
+        public String getVillainName() {
+            return villainName;
+        }
+
+        public long getMinionCount() {
+            return minionCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %d", villainName, minionCount);
+        }
+    }
+}
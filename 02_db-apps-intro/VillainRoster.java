@@ -0,0 +1,66 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class VillainRoster {
+    private final long villainId;
+    private final String villainName;
+    private final List<Minion> minions;
+
+    public VillainRoster(long villainId, String villainName) {
+        this.villainId = villainId;
+        this.villainName = villainName;
+        this.minions = new ArrayList<>();
+    }
+
+    void addMinion(String name, long age) {
+        minions.add(new Minion(name, age));
+    }
+
+    public long getVillainId() {
+        return villainId;
+    }
+
+    public String getVillainName() {
+        return villainName;
+    }
+
+    public List<Minion> getMinions() {
+        return minions;
+    }
+
+    public int getMinionCount() {
+        return minions.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder("Villain: ").append(villainName);
+        for (int i = 0; i < minions.size(); i++) {
+            Minion minion = minions.get(i);
+            output.append(String.format("%n%d. %s %d",
+                    i + 1, minion.getName(), minion.getAge()));
+        }
+        if (minions.isEmpty()) {
+            output.append("\n <no minions>");
+        }
+        return output.toString();
+    }
+
+    public static final class Minion {
+        private final String name;
+        private final long age;
+
+        private Minion(String name, long age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getAge() {
+            return age;
+        }
+    }
+}
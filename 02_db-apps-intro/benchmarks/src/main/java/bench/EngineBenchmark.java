@@ -0,0 +1,91 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*Throughput and sampled latency (p50..p99.99) of each Engine problem.
+  The table size is a JMH parameter: -p minions=1000,10000,100000.
+  Engine prints its results, so stdout is discarded while measuring.*/
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+    @Param({"1000", "10000"})
+    public int minions;
+
+    private MinionsDb db;
+    private EngineHandle engine;
+    private PrintStream stdout;
+    private int villainCount;
+    private long addedMinions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = new MinionsDb(minions, 4);
+        engine = new EngineHandle(db.getDataSource());
+        villainCount = MinionsDb.villainCount(minions);
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.setOut(stdout);
+        System.out.println(db.getDataSource());
+        db.close();
+    }
+
+    @Benchmark
+    public void getVillainsNames() throws Throwable {
+        engine.getVillainsNames();
+    }
+
+    @Benchmark
+    public void getMinionNames() throws Throwable {
+        engine.getMinionNames(ThreadLocalRandom.current().nextInt(villainCount) + 1);
+    }
+
+    @Benchmark
+    public void addMinion() throws Throwable {
+        engine.addMinion("bench minion " + addedMinions++, 7,
+                "town 1", "Villain 1");
+    }
+
+    @Benchmark
+    public String upCaseTownNames(TownReset reset) throws Throwable {
+        return engine.upCaseTownNames(MinionsDb.BENCHMARK_COUNTRY);
+    }
+
+    @Benchmark
+    public void printAllMinionNames() throws Throwable {
+        engine.printAllMinionNames();
+    }
+
+    /*Gives upCaseTownNames lower-case towns to work on before every call.*/
+    @State(Scope.Benchmark)
+    public static class TownReset {
+        @Setup(Level.Invocation)
+        public void reset(EngineBenchmark benchmark) throws Exception {
+            benchmark.db.lowerCaseTownNames();
+        }
+    }
+}
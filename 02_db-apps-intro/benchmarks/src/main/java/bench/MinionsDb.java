@@ -0,0 +1,117 @@
+package bench;
+
+import com.company.jdbc.DriverManagerDataSource;
+import com.company.jdbc.PooledDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/*In-memory H2 copy of MinionsDB, seeded with a configurable number of minions.*/
+public class MinionsDb implements AutoCloseable {
+    public static final int COUNTRY_COUNT = 10;
+    public static final String BENCHMARK_COUNTRY = "Country 1";
+    private static final int BATCH_SIZE = 1000;
+
+    private final PooledDataSource dataSource;
+
+    public MinionsDb(int minionCount, int poolSize) throws SQLException {
+        String url = "jdbc:h2:mem:minions_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        Properties properties = new Properties();
+        properties.setProperty("user", "sa");
+        properties.setProperty("password", "");
+        this.dataSource = new PooledDataSource(new DriverManagerDataSource(url, properties), poolSize);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:/minionsdb-schema.sql'");
+        }
+        seed(minionCount);
+    }
+
+    public static int townCount(int minionCount) {
+        return Math.max(COUNTRY_COUNT, minionCount / 100);
+    }
+
+    public static int villainCount(int minionCount) {
+        return Math.max(1, minionCount / 10);
+    }
+
+    private void seed(int minionCount) throws SQLException {
+        int townCount = townCount(minionCount);
+        int villainCount = villainCount(minionCount);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            insertRows(connection, "INSERT INTO countries (name) VALUES (?)", COUNTRY_COUNT,
+                    (statement, i) -> statement.setString(1, "Country " + i));
+            insertRows(connection, "INSERT INTO towns (name, country_id) VALUES (?, ?)", townCount,
+                    (statement, i) -> {
+                        statement.setString(1, "town " + i);
+                        statement.setInt(2, i % COUNTRY_COUNT + 1);
+                    });
+            insertRows(connection, "INSERT INTO villains (name, evil_factor) VALUES (?, ?)", villainCount,
+                    (statement, i) -> {
+                        statement.setString(1, "Villain " + i);
+                        statement.setString(2, "evil");
+                    });
+            insertRows(connection, "INSERT INTO minions (name, age, town_id) VALUES (?, ?, ?)", minionCount,
+                    (statement, i) -> {
+                        statement.setString(1, "minion " + i);
+                        statement.setInt(2, i % 40 + 1);
+                        statement.setInt(3, i % townCount + 1);
+                    });
+            insertRows(connection, "INSERT INTO minions_villains (minion_id, villain_id) VALUES (?, ?)", minionCount,
+                    (statement, i) -> {
+                        statement.setInt(1, i + 1);
+                        statement.setInt(2, i % villainCount + 1);
+                    });
+            connection.commit();
+        }
+    }
+
+    private static void insertRows(Connection connection, String query, int count,
+                                   RowBinder binder) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            for (int i = 0; i < count; i++) {
+                binder.bind(statement, i);
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /*Puts the town names of the benchmark country back in lower case,
+      so every upCaseTownNames invocation has work to do.*/
+    public void lowerCaseTownNames() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE towns SET name = LOWER(name) " +
+                             "WHERE country_id = (SELECT id FROM countries WHERE name = ?)")) {
+            statement.setString(1, BENCHMARK_COUNTRY);
+            statement.executeUpdate();
+        }
+    }
+
+    public PooledDataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private interface RowBinder {
+        void bind(PreparedStatement statement, int row) throws SQLException;
+    }
+}
@@ -0,0 +1,40 @@
+CREATE ALIAS IF NOT EXISTS BINARY FOR 'bench.H2Functions.binary';
+
+CREATE TABLE countries (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE towns (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    country_id INT,
+    CONSTRAINT fk_towns_countries FOREIGN KEY (country_id) REFERENCES countries (id)
+);
+
+CREATE TABLE minions (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    age INT,
+    town_id INT,
+    CONSTRAINT fk_minions_towns FOREIGN KEY (town_id) REFERENCES towns (id)
+);
+
+CREATE TABLE villains (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    evil_factor VARCHAR(20)
+);
+
+CREATE TABLE minions_villains (
+    minion_id INT NOT NULL,
+    villain_id INT NOT NULL,
+    CONSTRAINT pk_minions_villains PRIMARY KEY (minion_id, villain_id),
+    CONSTRAINT fk_minions_villains_minions FOREIGN KEY (minion_id) REFERENCES minions (id),
+    CONSTRAINT fk_minions_villains_villains FOREIGN KEY (villain_id) REFERENCES villains (id)
+);
+
+CREATE INDEX ix_towns_name ON towns (name);
+CREATE INDEX ix_minions_name ON minions (name);
+CREATE INDEX ix_villains_name ON villains (name);
+CREATE INDEX ix_countries_name ON countries (name);
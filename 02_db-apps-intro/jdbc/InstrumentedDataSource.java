@@ -0,0 +1,205 @@
+package com.company.jdbc;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/*Decorates another DataSource so that every statement executed on its
+  connections is timed and counted in a QueryMetrics registry, keyed by
+  SQL text. Can wrap a PooledDataSource or any other DataSource.*/
+public class InstrumentedDataSource implements DataSource {
+    private static final String STATEMENT_BATCH = "[statement batch]";
+
+    private final DataSource delegate;
+    private final QueryMetrics metrics;
+
+    public InstrumentedDataSource(DataSource delegate, QueryMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(delegate.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(delegate.getConnection(username, password));
+    }
+
+    public QueryMetrics getMetrics() {
+        return metrics;
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(connection, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return wrapStatement(PreparedStatement.class, (Statement) result,
+                            metrics.forSql((String) args[0]), (Connection) proxy);
+                case "prepareCall":
+                    return wrapStatement(CallableStatement.class, (Statement) result,
+                            metrics.forSql((String) args[0]), (Connection) proxy);
+                case "createStatement":
+                    return wrapStatement(Statement.class, (Statement) result, null, (Connection) proxy);
+                default:
+                    return result;
+            }
+        }
+
+        private Object wrapStatement(Class<? extends Statement> type, Statement statement,
+                                     QueryStats stats, Connection connection) {
+            return Proxy.newProxyInstance(
+                    type.getClassLoader(),
+                    new Class<?>[]{type},
+                    new StatementHandler(statement, stats, connection));
+        }
+    }
+
+    /*stats is fixed for prepared statements; for plain statements it is
+      looked up from the SQL passed to each execute call.*/
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final QueryStats preparedStats;
+        private final Connection connection;
+        private QueryStats lastStats;
+
+        private StatementHandler(Statement statement, QueryStats preparedStats, Connection connection) {
+            this.statement = statement;
+            this.preparedStats = preparedStats;
+            this.connection = connection;
+            this.lastStats = preparedStats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("getResultSet")) {
+                ResultSet resultSet = statement.getResultSet();
+                return resultSet == null || lastStats == null
+                        ? resultSet
+                        : new InstrumentedResultSet(resultSet, lastStats, (Statement) proxy);
+            }
+            if (!name.startsWith("execute")) {
+                return InstrumentedDataSource.invoke(statement, method, args);
+            }
+
+            QueryStats stats = statsFor(name, args);
+            lastStats = stats;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedDataSource.invoke(statement, method, args);
+            } catch (Throwable e) {
+                stats.recordExecution(System.nanoTime() - start, true);
+                throw e;
+            }
+            stats.recordExecution(System.nanoTime() - start, false);
+
+            if (result instanceof ResultSet) {
+                return new InstrumentedResultSet((ResultSet) result, stats, (Statement) proxy);
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                stats.recordRowsUpdated(((Number) result).longValue());
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    stats.recordRowsUpdated(count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    stats.recordRowsUpdated(count);
+                }
+            } else if (Boolean.FALSE.equals(result)) {
+                stats.recordRowsUpdated(statement.getUpdateCount());
+            }
+            return result;
+        }
+
+        private QueryStats statsFor(String methodName, Object[] args) {
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                return metrics.forSql((String) args[0]);
+            }
+            if (preparedStats != null) {
+                return preparedStats;
+            }
+            return metrics.forSql(methodName.startsWith("executeBatch")
+                    || methodName.startsWith("executeLargeBatch") ? STATEMENT_BATCH : methodName);
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+}
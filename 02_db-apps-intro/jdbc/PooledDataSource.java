@@ -0,0 +1,582 @@
+package com.company.jdbc;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/*Bounded connection pool on top of any other DataSource.
+  Closing a borrowed connection hands it back to the pool. Every
+  physical connection keeps its own StatementCache, so
+  prepareStatement(String) on a borrowed connection returns a cached
+  statement whose close() leaves it open for the next borrower.
+  A returned connection is rolled back and gets back the auto-commit,
+  read-only, isolation and catalog settings it was opened with.*/
+public class PooledDataSource implements DataSource, AutoCloseable {
+    public static final int DEFAULT_MAX_SIZE = 10;
+    private static final long EVICTION_INTERVAL_MILLIS = 30_000;
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private final DataSource source;
+    private final int maxSize;
+    private volatile long maxWaitMillis = 30_000;
+    private volatile long idleTimeoutMillis = 600_000;
+    private volatile long maxLifetimeMillis = 1_800_000;
+    private volatile int validationTimeoutSeconds = 5;
+    private volatile int statementCacheSize = StatementCache.DEFAULT_CAPACITY;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final List<PooledConnection> open = new ArrayList<>();
+    private final ScheduledExecutorService evictor;
+    private int reserved;
+    private boolean closed;
+
+    private long borrows;
+    private long created;
+    private long evicted;
+    private long validationFailures;
+    private long timeouts;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    public PooledDataSource(DataSource source) {
+        this(source, DEFAULT_MAX_SIZE);
+    }
+
+    public PooledDataSource(DataSource source, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive.");
+        }
+        this.source = source;
+        this.maxSize = maxSize;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdle,
+                EVICTION_INTERVAL_MILLIS, EVICTION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (true) {
+            PooledConnection candidate = takeOrReserve(deadline);
+            if (candidate == null) {
+                candidate = openReserved();
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+            recordBorrow(System.nanoTime() - start);
+            return candidate.lease();
+        }
+    }
+
+    /*Returns an idle connection, or null after reserving a slot for a new one.*/
+    private PooledConnection takeOrReserve(long deadline) throws SQLException {
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed.");
+                }
+                PooledConnection candidate = idle.pollFirst();
+                if (candidate != null) {
+                    return candidate;
+                }
+                if (open.size() + reserved < maxSize) {
+                    reserved++;
+                    return null;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeouts++;
+                    throw new SQLException(String.format(
+                            "Timed out after %d ms waiting for a connection.", maxWaitMillis));
+                }
+                available.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PooledConnection openReserved() throws SQLException {
+        Connection physical = null;
+        PooledConnection connection;
+        try {
+            physical = source.getConnection();
+            connection = new PooledConnection(physical, statementCacheSize);
+        } catch (SQLException | RuntimeException e) {
+            if (physical != null) {
+                try {
+                    physical.close();
+                } catch (SQLException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+            }
+            lock.lock();
+            try {
+                reserved--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            reserved--;
+            open.add(connection);
+            created++;
+        } finally {
+            lock.unlock();
+        }
+        return connection;
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        long now = System.currentTimeMillis();
+        if (isExpired(connection, now)) {
+            return false;
+        }
+        if (now - connection.lastUsedAt < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            if (connection.physical.isValid(validationTimeoutSeconds)) {
+                return true;
+            }
+        } catch (SQLException ignored) {
+        }
+        lock.lock();
+        try {
+            validationFailures++;
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    private boolean isExpired(PooledConnection connection, long now) {
+        return now - connection.createdAt >= maxLifetimeMillis;
+    }
+
+    private void recordBorrow(long waitNanos) {
+        lock.lock();
+        try {
+            borrows++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        try {
+            if (!connection.physical.getAutoCommit()) {
+                connection.physical.rollback();
+                connection.physical.setAutoCommit(true);
+            }
+            connection.restoreSettings();
+        } catch (SQLException e) {
+            discard(connection);
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (!closed && !isExpired(connection, System.currentTimeMillis())) {
+                connection.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(connection);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(connection);
+    }
+
+    private void discard(PooledConnection connection) {
+        lock.lock();
+        try {
+            if (open.remove(connection)) {
+                evicted++;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        connection.closeQuietly();
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<PooledConnection> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledConnection connection = iterator.next();
+                if (now - connection.lastUsedAt >= idleTimeoutMillis || isExpired(connection, now)) {
+                    iterator.remove();
+                    expired.add(connection);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        expired.forEach(this::discard);
+    }
+
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        toClose.forEach(this::discard);
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return open.size() - idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBorrowCount() {
+        lock.lock();
+        try {
+            return borrows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTimeoutCount() {
+        lock.lock();
+        try {
+            return timeouts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getAverageWaitMillis() {
+        lock.lock();
+        try {
+            return borrows == 0 ? 0 : totalWaitNanos / 1e6 / borrows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getObservedMaxWaitMillis() {
+        lock.lock();
+        try {
+            return maxWaitNanos / 1e6;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getStatementCacheHits() {
+        lock.lock();
+        try {
+            long hits = 0;
+            for (PooledConnection connection : open) {
+                hits += connection.statements.getHits();
+            }
+            return hits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getStatementCacheMisses() {
+        lock.lock();
+        try {
+            long misses = 0;
+            for (PooledConnection connection : open) {
+                misses += connection.statements.getMisses();
+            }
+            return misses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format(
+                    "Connection pool: %d active, %d idle, max %d; " +
+                            "%d borrows, avg wait %.3f ms, max wait %.3f ms, %d timeouts; " +
+                            "%d created, %d evicted, %d failed validation",
+                    open.size() - idle.size(), idle.size(), maxSize,
+                    borrows, getAverageWaitMillis(), getObservedMaxWaitMillis(), timeouts,
+                    created, evicted, validationFailures);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections share one set of credentials.");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return source.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        source.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        source.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return source.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return source.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return source.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || source.isWrapperFor(iface);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private final long createdAt;
+        private volatile long lastUsedAt;
+        private final boolean readOnly;
+        private final int transactionIsolation;
+        private final String catalog;
+        private volatile boolean settingsChanged;
+
+        private PooledConnection(Connection physical, int statementCacheSize) throws SQLException {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize);
+            this.createdAt = System.currentTimeMillis();
+            this.lastUsedAt = createdAt;
+            this.readOnly = physical.isReadOnly();
+            this.transactionIsolation = physical.getTransactionIsolation();
+            this.catalog = physical.getCatalog();
+        }
+
+        /*Undoes what a borrower changed through the setters, so it does
+          not carry over to the next one.*/
+        private void restoreSettings() throws SQLException {
+            if (!settingsChanged) {
+                return;
+            }
+            if (physical.isReadOnly() != readOnly) {
+                physical.setReadOnly(readOnly);
+            }
+            if (physical.getTransactionIsolation() != transactionIsolation) {
+                physical.setTransactionIsolation(transactionIsolation);
+            }
+            if (catalog != null && !catalog.equals(physical.getCatalog())) {
+                physical.setCatalog(catalog);
+            }
+            settingsChanged = false;
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeasedConnection(this));
+        }
+
+        private void closeQuietly() {
+            try {
+                statements.close();
+            } catch (SQLException ignored) {
+            }
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private final class LeasedConnection implements InvocationHandler {
+        private final PooledConnection pooled;
+        private Connection proxy;
+        private boolean closed;
+
+        private LeasedConnection(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            this.proxy = (Connection) proxy;
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + pooled.physical;
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                case "setCatalog":
+                    pooled.settingsChanged = true;
+                    break;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                return cachedStatement(pooled.statements.prepare((String) args[0]));
+            }
+            return PooledDataSource.invoke(pooled.physical, method, args);
+        }
+
+        /*close() keeps the physical statement in the cache and only closes
+          this handle. A handle used after its own close, or after the lease
+          ended, fails instead of running on a connection that may belong
+          to another borrower by then.*/
+        private PreparedStatement cachedStatement(PreparedStatement statement) {
+            boolean[] statementClosed = {false};
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (statementProxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                statementClosed[0] = true;
+                                return null;
+                            case "isClosed":
+                                return statementClosed[0] || closed;
+                            case "getConnection":
+                                return proxy;
+                            case "equals":
+                                return statementProxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(statementProxy);
+                            default:
+                                if (statementClosed[0] || closed) {
+                                    throw new SQLException("Statement is closed");
+                                }
+                                return PooledDataSource.invoke(statement, method, args);
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.company.jdbc;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*In-process registry of QueryStats, one entry per SQL template.*/
+public class QueryMetrics implements AutoCloseable {
+    private final ConcurrentMap<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    public QueryStats forSql(String sql) {
+        QueryStats queryStats = stats.get(sql);
+        if (queryStats == null) {
+            queryStats = stats.computeIfAbsent(sql, key -> new QueryStats(key.replaceAll("\\s+", " ").trim()));
+        }
+        return queryStats;
+    }
+
+    /*All templates, slowest in total first.*/
+    public List<QueryStats> snapshot() {
+        List<QueryStats> snapshot = new ArrayList<>(stats.values());
+        snapshot.sort(Comparator.comparingLong(QueryStats::getTotalNanos).reversed());
+        return snapshot;
+    }
+
+    public void dump(PrintStream out) {
+        out.printf("Query metrics at %s (%d templates)%n", LocalDateTime.now(), stats.size());
+        for (QueryStats queryStats : snapshot()) {
+            out.println("  " + queryStats);
+        }
+        out.flush();
+    }
+
+    public synchronized void startReporting(PrintStream out, long period, TimeUnit unit) {
+        scheduler().scheduleAtFixedRate(() -> dump(out), period, period, unit);
+    }
+
+    public synchronized void startReporting(Path file, long period, TimeUnit unit) {
+        scheduler().scheduleAtFixedRate(() -> {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                dump(out);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, period, period, unit);
+    }
+
+    private ScheduledExecutorService scheduler() {
+        if (reporter == null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "query-metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return reporter;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.company.jdbc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*Counters for one SQL template. Latencies go into power-of-two
+  microsecond buckets, so percentiles are upper bounds of a bucket.*/
+public class QueryStats {
+    private static final int BUCKETS = 40;
+
+    private final String sql;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder rowsFetched = new LongAdder();
+    private final LongAdder rowsUpdated = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+
+    public QueryStats(String sql) {
+        this.sql = sql;
+    }
+
+    void recordExecution(long nanos, boolean failed) {
+        executions.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        latencyBuckets.incrementAndGet(bucketOf(nanos / 1000));
+    }
+
+    void recordRowsFetched(long rows) {
+        rowsFetched.add(rows);
+    }
+
+    void recordRowsUpdated(long rows) {
+        if (rows > 0) {
+            rowsUpdated.add(rows);
+        }
+    }
+
+    private static int bucketOf(long micros) {
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /*Upper bound, in microseconds, of the bucket holding the given percentile.*/
+    public long percentileMicros(double percentile) {
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = latencyBuckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched.sum();
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated.sum();
+    }
+
+    @Override
+    public String toString() {
+        long count = getExecutions();
+        return String.format(
+                "%,d execs (%d errors), total %.3f ms, avg %.3f ms, p50 <%d us, p99 <%d us, max %.3f ms, " +
+                        "%,d rows fetched, %,d rows updated | %s",
+                count, getErrors(), getTotalNanos() / 1e6,
+                count == 0 ? 0 : getTotalNanos() / 1e6 / count,
+                percentileMicros(50), percentileMicros(99), getMaxNanos() / 1e6,
+                getRowsFetched(), getRowsUpdated(), sql);
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.jdbc;
+
+public final class QueryUtils {
+    private QueryUtils() {
+    }
+
+    /*Builds "?, ?, ?" for an IN list with the given number of values.*/
+    public static String placeholders(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("An IN list needs at least one value.");
+        }
+        StringBuilder placeholders = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return placeholders.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.company.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*Keeps one prepared statement per SQL text for a single connection.
+  The least recently used statement is closed once the cache is full.
+  Guarded by a ReentrantLock rather than synchronized so that a
+  virtual thread preparing a statement does not pin its carrier.*/
+public class StatementCache implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final Connection connection;
+    private final int capacity;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public StatementCache(Connection connection) {
+        this(connection, DEFAULT_CAPACITY);
+    }
+
+    public StatementCache(Connection connection, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.connection = connection;
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /*Returns the cached statement for the query, preparing it on a miss.
+      Parameters and any batch left over from the previous use are
+      cleared, and fetch size, max rows and query timeout go back to the
+      JDBC defaults.*/
+    public PreparedStatement prepare(String query) throws SQLException {
+        lock.lock();
+        try {
+            PreparedStatement statement = statements.get(query);
+            if (statement != null && !statement.isClosed()) {
+                hits++;
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.setFetchSize(0);
+                statement.setMaxRows(0);
+                statement.setQueryTimeout(0);
+                return statement;
+            }
+
+            misses++;
+            statement = connection.prepareStatement(query);
+            statements.put(query, statement);
+            evictEldest();
+            return statement;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictEldest() throws SQLException {
+        if (statements.size() <= capacity) {
+            return;
+        }
+        Iterator<Map.Entry<String, PreparedStatement>> iterator =
+                statements.entrySet().iterator();
+        PreparedStatement eldest = iterator.next().getValue();
+        iterator.remove();
+        evictions++;
+        eldest.close();
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return statements.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        lock.lock();
+        try {
+            return hits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMisses() {
+        lock.lock();
+        try {
+            return misses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEvictions() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format("Statement cache: %d/%d statements, %d hits, %d misses, %d evictions",
+                    statements.size(), capacity, hits, misses, evictions);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        lock.lock();
+        try {
+            SQLException failure = null;
+            for (PreparedStatement statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            statements.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.company.p01_jdbcConnectionDemo;
+
+import java.math.BigDecimal;
+
+public class EmployeeSalary {
+    private final long employeeId;
+    private final String fullName;
+    private final BigDecimal salary;
+
+    public EmployeeSalary(long employeeId, String fullName, BigDecimal salary) {
+        this.employeeId = employeeId;
+        this.fullName = fullName;
+        this.salary = salary;
+    }
+
+    public long getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public BigDecimal getSalary() {
+        return salary;
+    }
+
+    @Override
+    public String toString() {
+        return fullName;
+    }
+}
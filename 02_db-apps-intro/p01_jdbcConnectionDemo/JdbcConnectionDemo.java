@@ -1,9 +1,12 @@
 package com.company.p01_jdbcConnectionDemo;
 
+import com.company.jdbc.DriverManagerDataSource;
+import com.company.jdbc.PooledDataSource;
+
+import java.math.BigDecimal;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 public class JdbcConnectionDemo {
 
@@ -13,25 +16,14 @@ public class JdbcConnectionDemo {
         props.setProperty("password", "1234qwer");
 
         String connectionString = "jdbc:mysql://localhost:3306/soft_uni";
-        Connection connection = DriverManager.getConnection(connectionString, props);
-
-        PreparedStatement preparedStatement = connection.prepareStatement( "" +
-                    "SELECT CONCAT(e.first_name, ' ', e.last_name) AS full_name\n" +
-                    "FROM employees e\n" +
-                    "WHERE e.salary > ?;\n");
-
-        double minSalary = 70000;
-        preparedStatement.setDouble(1, minSalary);
-        preparedStatement.executeQuery();
-        ResultSet resultSet = preparedStatement.getResultSet();
-
-        List<String> resultList = new ArrayList<>();
-
-        while(resultSet.next()) {
-            String fullName = resultSet.getString("full_name");
-            resultList.add(fullName);
+        BigDecimal minSalary = BigDecimal.valueOf(70000);
+        try (PooledDataSource dataSource = new PooledDataSource(
+                new DriverManagerDataSource(connectionString, props), 1)) {
+            SalaryQueryService salaries = new SalaryQueryService(dataSource);
+            try (Stream<EmployeeSalary> employees = salaries.stream(minSalary)) {
+                employees.map(EmployeeSalary::getFullName)
+                        .forEach(System.out::println);
+            }
         }
-
-        resultList.forEach(System.out::println);
     }
 }
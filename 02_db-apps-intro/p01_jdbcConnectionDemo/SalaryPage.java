@@ -0,0 +1,29 @@
+package com.company.p01_jdbcConnectionDemo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/*One page of employees above a salary threshold. nextCursor is absent
+  on the last page.*/
+public class SalaryPage {
+    private final List<EmployeeSalary> employees;
+    private final String nextCursor;
+
+    public SalaryPage(List<EmployeeSalary> employees, String nextCursor) {
+        this.employees = Collections.unmodifiableList(employees);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EmployeeSalary> getEmployees() {
+        return employees;
+    }
+
+    public Optional<String> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,175 @@
+package com.company.p01_jdbcConnectionDemo;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*Employees earning more than a threshold, ordered by (salary, employee_id)
+  and read with keyset pagination: each page continues after the last row
+  of the previous one instead of using OFFSET, so every page costs the
+  same no matter how deep into the table it is. A connection is only
+  held while a single page is being read.*/
+public class SalaryQueryService {
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    private static final String FIRST_PAGE_QUERY =
+                    "SELECT e.employee_id,\n" +
+                    "       CONCAT(e.first_name, ' ', e.last_name) AS full_name,\n" +
+                    "       e.salary\n" +
+                    "FROM employees e\n" +
+                    "WHERE e.salary > ?\n" +
+                    "ORDER BY e.salary, e.employee_id\n" +
+                    "LIMIT ?;";
+
+    private static final String NEXT_PAGE_QUERY =
+                    "SELECT e.employee_id,\n" +
+                    "       CONCAT(e.first_name, ' ', e.last_name) AS full_name,\n" +
+                    "       e.salary\n" +
+                    "FROM employees e\n" +
+                    "WHERE e.salary > ?\n" +
+                    "  AND (e.salary > ? OR (e.salary = ? AND e.employee_id > ?))\n" +
+                    "ORDER BY e.salary, e.employee_id\n" +
+                    "LIMIT ?;";
+
+    private final DataSource dataSource;
+    private final int pageSize;
+
+    public SalaryQueryService(DataSource dataSource) {
+        this(dataSource, DEFAULT_PAGE_SIZE);
+    }
+
+    public SalaryQueryService(DataSource dataSource, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        this.dataSource = dataSource;
+        this.pageSize = pageSize;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public SalaryPage firstPage(BigDecimal minSalary) throws SQLException {
+        return fetchPage(minSalary, null);
+    }
+
+    /*cursor is the token returned by the previous page, or null for the
+      first one.*/
+    public SalaryPage nextPage(BigDecimal minSalary, String cursor) throws SQLException {
+        return fetchPage(minSalary, cursor == null ? null : Cursor.decode(cursor));
+    }
+
+    /*Lazily walks all pages. SQLExceptions thrown while fetching a page
+      are rethrown wrapped in an IllegalStateException.*/
+    public Stream<EmployeeSalary> stream(BigDecimal minSalary) {
+        Spliterator<EmployeeSalary> pages = new Spliterators.AbstractSpliterator<EmployeeSalary>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT) {
+            private Iterator<EmployeeSalary> current;
+            private String cursor;
+            private boolean exhausted;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super EmployeeSalary> action) {
+                while (current == null || !current.hasNext()) {
+                    if (exhausted) {
+                        return false;
+                    }
+                    SalaryPage page;
+                    try {
+                        page = current == null ? firstPage(minSalary) : nextPage(minSalary, cursor);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Could not fetch the next page of employees", e);
+                    }
+                    current = page.getEmployees().iterator();
+                    cursor = page.getNextCursor().orElse(null);
+                    exhausted = cursor == null;
+                }
+                action.accept(current.next());
+                return true;
+            }
+        };
+        return StreamSupport.stream(pages, false);
+    }
+
+    /*Reads one row more than the page size to find out whether another
+      page follows.*/
+    private SalaryPage fetchPage(BigDecimal minSalary, Cursor after) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement =
+                     connection.prepareStatement(after == null ? FIRST_PAGE_QUERY : NEXT_PAGE_QUERY)) {
+            int index = 1;
+            preparedStatement.setBigDecimal(index++, minSalary);
+            if (after != null) {
+                preparedStatement.setBigDecimal(index++, after.salary);
+                preparedStatement.setBigDecimal(index++, after.salary);
+                preparedStatement.setLong(index++, after.employeeId);
+            }
+            preparedStatement.setInt(index, pageSize + 1);
+
+            List<EmployeeSalary> employees = new ArrayList<>(pageSize);
+            boolean more = false;
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (employees.size() == pageSize) {
+                        more = true;
+                        break;
+                    }
+                    employees.add(new EmployeeSalary(
+                            resultSet.getLong("employee_id"),
+                            resultSet.getString("full_name"),
+                            resultSet.getBigDecimal("salary")));
+                }
+            }
+
+            String nextCursor = null;
+            if (more) {
+                EmployeeSalary last = employees.get(employees.size() - 1);
+                nextCursor = new Cursor(last.getSalary(), last.getEmployeeId()).encode();
+            }
+            return new SalaryPage(employees, nextCursor);
+        }
+    }
+
+    /*Position after the last row of a page, passed to callers as an
+      opaque URL-safe token.*/
+    private static final class Cursor {
+        private final BigDecimal salary;
+        private final long employeeId;
+
+        private Cursor(BigDecimal salary, long employeeId) {
+            this.salary = salary;
+            this.employeeId = employeeId;
+        }
+
+        private String encode() {
+            String raw = salary.toPlainString() + ":" + employeeId;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                return new Cursor(new BigDecimal(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid page cursor: " + token, e);
+            }
+        }
+    }
+}
@@ -1,54 +1,66 @@
 package com.company.p02_simpleDBRetrievementApp;
 
+import com.company.jdbc.DriverManagerDataSource;
+import com.company.jdbc.PooledDataSource;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class DbRetrievementApp {
     private static final String USER = "";
     private static final String PASSWORD = "";
+    private static final int CACHE_SIZE = 10_000;
+    private static final long CACHE_TTL_SECONDS = 60;
 
-    public static void main(String[] args) throws SQLException {
+    /*Pass --export <file> [csv|ndjson] to dump every user's stats
+      instead of answering lookups from stdin.*/
+    public static void main(String[] args) throws SQLException, IOException {
         String connectionString = "jdbc:mysql://localhost:3306/diablo";
         Properties properties = new Properties();
         properties.setProperty("user", USER);
         properties.setProperty("password", PASSWORD);
+        properties.setProperty("useCursorFetch", "true");
+
+        if (args.length > 0 && args[0].equals("--export")) {
+            if (args.length < 2) {
+                System.out.println("Usage: --export <file> [csv|ndjson]");
+                return;
+            }
+            GameStatsExporter.Format format = args.length > 2
+                    ? GameStatsExporter.Format.valueOf(args[2].toUpperCase())
+                    : GameStatsExporter.Format.CSV;
+            try (PooledDataSource dataSource = new PooledDataSource(
+                    new DriverManagerDataSource(connectionString, properties), 1)) {
+                long exported = new GameStatsExporter(dataSource).export(Paths.get(args[1]), format,
+                        rows -> System.out.printf("Exported %d users%n", rows));
+                System.out.printf("Export of %d users to %s done%n", exported, args[1]);
+            }
+            return;
+        }
 
         Scanner sc = new Scanner(System.in);
-        String userName = sc.nextLine();
-
-        Connection connection = DriverManager.getConnection(
-                connectionString, properties);
-        String query =
-                        "SELECT\n" +
-                        "       u.first_name,\n" +
-                        "       u.last_name,\n" +
-                        "       u.user_name,\n" +
-                        "       COUNT(g.id) AS num_of_played_games\n" +
-                        "FROM games g\n" +
-                        "JOIN users_games ug\n" +
-                        "ON g.id = ug.game_id\n" +
-                        "JOIN users u\n" +
-                        "ON ug.user_id = u.id\n" +
-                        "WHERE g.is_finished AND user_name = ?\n" +
-                        "GROUP BY u.user_name,\n" +
-                        "         u.first_name,\n" +
-                        "         u.last_name\n" +
-                        "ORDER BY u.user_name;";
-
-        PreparedStatement preparedStatement = connection.prepareStatement(query);
-        preparedStatement.setString(1, userName);
-        preparedStatement.executeQuery();
-
-        ResultSet resultSet = preparedStatement.getResultSet();
-        if (!resultSet.next()) {
-            System.out.println("No such user exists");
-        } else {
-                String firstName = resultSet.getString("first_name");
-                String lastName = resultSet.getString("last_name");
-                long gamesPlayed = resultSet.getInt("num_of_played_games");
-
-                System.out.printf("User: %s%n%s %s has played %d games",
-                        userName, firstName, lastName, gamesPlayed);
+
+        try (PooledDataSource dataSource = new PooledDataSource(
+                new DriverManagerDataSource(connectionString, properties), 1)) {
+            GameStatsCache cache = new GameStatsCache(
+                    new GameStatsRepository(dataSource),
+                    CACHE_SIZE, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+
+            while (sc.hasNextLine()) {
+                String userName = sc.nextLine();
+                if (userName.isEmpty()) {
+                    break;
+                }
+                Optional<GameStats> stats = cache.get(userName);
+                if (!stats.isPresent()) {
+                    System.out.println("No such user exists");
+                } else {
+                    System.out.println(stats.get());
+                }
+            }
         }
     }
 }
@@ -0,0 +1,44 @@
+package com.company.p02_simpleDBRetrievementApp;
+
+public class GameStats {
+    private final long userId;
+    private final String userName;
+    private final String firstName;
+    private final String lastName;
+    private final long gamesPlayed;
+
+    public GameStats(long userId, String userName, String firstName,
+                     String lastName, long gamesPlayed) {
+        this.userId = userId;
+        this.userName = userName;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.gamesPlayed = gamesPlayed;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("User: %s%n%s %s has played %d games",
+                userName, firstName, lastName, gamesPlayed);
+    }
+}
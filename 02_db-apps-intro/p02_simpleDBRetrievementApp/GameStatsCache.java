@@ -0,0 +1,245 @@
+package com.company.p02_simpleDBRetrievementApp;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*Read-through cache in front of GameStatsRepository, keyed by user name.
+  Entries expire after a TTL and the least recently used one is dropped
+  once maxSize is reached. Unknown users are cached too, so a hot miss
+  does not hit the database either. Concurrent misses for the same user
+  share a single query. Names that differ only in case or accents can
+  match the same user under the MySQL collation; they are cached as
+  separate entries, and all of them are dropped when that user changes.*/
+public class GameStatsCache {
+    private final GameStatsRepository repository;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<String>> userNamesById = new HashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Optional<GameStats>>> loading =
+            new ConcurrentHashMap<>();
+    private long invalidationEpoch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public GameStatsCache(GameStatsRepository repository, int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.repository = repository;
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    public Optional<GameStats> get(String userName) throws SQLException {
+        long epoch;
+        lock.lock();
+        try {
+            Entry entry = entries.get(userName);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits++;
+                    return entry.stats;
+                }
+                remove(userName);
+                expirations++;
+            }
+            misses++;
+            epoch = invalidationEpoch;
+        } finally {
+            lock.unlock();
+        }
+        return load(userName, epoch);
+    }
+
+    private Optional<GameStats> load(String userName, long epoch) throws SQLException {
+        CompletableFuture<Optional<GameStats>> pending = new CompletableFuture<>();
+        CompletableFuture<Optional<GameStats>> inFlight = loading.putIfAbsent(userName, pending);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            Optional<GameStats> stats = repository.findByUserName(userName);
+            store(userName, stats, epoch);
+            pending.complete(stats);
+            return stats;
+        } catch (SQLException | RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(userName, pending);
+        }
+    }
+
+    private static Optional<GameStats> await(CompletableFuture<Optional<GameStats>> inFlight)
+            throws SQLException {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /*A value loaded while an invalidation ran may already be stale,
+      so it is returned to the caller but not cached.*/
+    private void store(String userName, Optional<GameStats> stats, long epoch) {
+        lock.lock();
+        try {
+            if (epoch != invalidationEpoch) {
+                return;
+            }
+            remove(userName);
+            entries.put(userName, new Entry(stats, System.nanoTime()));
+            stats.ifPresent(s -> userNamesById
+                    .computeIfAbsent(s.getUserId(), id -> new HashSet<>())
+                    .add(userName));
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                unlink(evicted.getKey(), evicted.getValue());
+                evictions++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String userName) {
+        Entry entry = entries.remove(userName);
+        if (entry != null) {
+            unlink(userName, entry);
+        }
+    }
+
+    private void unlink(String userName, Entry entry) {
+        entry.stats.ifPresent(s -> {
+            Set<String> userNames = userNamesById.get(s.getUserId());
+            if (userNames != null && userNames.remove(userName) && userNames.isEmpty()) {
+                userNamesById.remove(s.getUserId());
+            }
+        });
+    }
+
+    public void invalidate(String userName) {
+        lock.lock();
+        try {
+            invalidationEpoch++;
+            invalidations++;
+            remove(userName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*Hook for writes to users_games. Users that were cached as unknown
+      have no id to match on, so those entries are dropped as well.*/
+    public void onUsersGamesChanged(long userId) {
+        lock.lock();
+        try {
+            invalidationEpoch++;
+            invalidations++;
+            Set<String> userNames = userNamesById.remove(userId);
+            if (userNames != null) {
+                userNames.forEach(entries::remove);
+            }
+            entries.values().removeIf(entry -> !entry.stats.isPresent());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidationEpoch++;
+            invalidations++;
+            entries.clear();
+            userNamesById.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        lock.lock();
+        try {
+            return hits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMisses() {
+        lock.lock();
+        try {
+            return misses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getHitRatio() {
+        lock.lock();
+        try {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format(
+                    "Game stats cache: %d/%d entries, %d hits, %d misses (%.1f%% hit ratio), " +
+                            "%d evicted, %d expired, %d invalidations",
+                    entries.size(), maxSize, hits, misses, getHitRatio() * 100,
+                    evictions, expirations, invalidations);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        private final Optional<GameStats> stats;
+        private final long loadedAt;
+
+        private Entry(Optional<GameStats> stats, long loadedAt) {
+            this.stats = stats;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.company.p02_simpleDBRetrievementApp;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.LongConsumer;
+
+/*Writes the finished-games count of every user to a file in one pass.
+  Rows are read through a forward-only cursor and encoded straight into
+  a fixed-size buffer, so memory use does not depend on the user count.
+  MySQL only streams with a positive fetch size when the connection is
+  opened with useCursorFetch=true.*/
+public class GameStatsExporter {
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    public static final int FETCH_SIZE = 1000;
+    public static final int PROGRESS_INTERVAL = 10_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+
+    public GameStatsExporter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /*Returns the number of exported users. Every user is exported, with
+      0 played games if none of theirs is finished. progress receives the
+      running row count every PROGRESS_INTERVAL rows and at the end.*/
+    public long export(Path target, Format format, LongConsumer progress) throws SQLException, IOException {
+        String query =
+                        "SELECT\n" +
+                        "       u.first_name,\n" +
+                        "       u.last_name,\n" +
+                        "       u.user_name,\n" +
+                        "       COUNT(g.id) AS num_of_played_games\n" +
+                        "FROM users u\n" +
+                        "LEFT JOIN users_games ug\n" +
+                        "ON ug.user_id = u.id\n" +
+                        "LEFT JOIN games g\n" +
+                        "ON g.id = ug.game_id\n" +
+                        "AND g.is_finished\n" +
+                        "GROUP BY u.id,\n" +
+                        "         u.user_name,\n" +
+                        "         u.first_name,\n" +
+                        "         u.last_name\n" +
+                        "ORDER BY u.user_name;";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             FileChannel channel = FileChannel.open(target,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            preparedStatement.setFetchSize(FETCH_SIZE);
+            LineWriter writer = new LineWriter(channel);
+            StringBuilder line = new StringBuilder(256);
+
+            if (format == Format.CSV) {
+                writer.write(line.append("user_name,first_name,last_name,num_of_played_games\n"));
+            }
+
+            long rows = 0;
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    line.setLength(0);
+                    String userName = resultSet.getString("user_name");
+                    String firstName = resultSet.getString("first_name");
+                    String lastName = resultSet.getString("last_name");
+                    long gamesPlayed = resultSet.getLong("num_of_played_games");
+                    if (format == Format.CSV) {
+                        appendCsv(line, userName).append(',');
+                        appendCsv(line, firstName).append(',');
+                        appendCsv(line, lastName).append(',');
+                        line.append(gamesPlayed).append('\n');
+                    } else {
+                        line.append("{\"user_name\":");
+                        appendJson(line, userName).append(",\"first_name\":");
+                        appendJson(line, firstName).append(",\"last_name\":");
+                        appendJson(line, lastName).append(",\"num_of_played_games\":");
+                        line.append(gamesPlayed).append("}\n");
+                    }
+                    writer.write(line);
+
+                    if (++rows % PROGRESS_INTERVAL == 0) {
+                        progress.accept(rows);
+                    }
+                }
+            }
+            writer.flush();
+            progress.accept(rows);
+            return rows;
+        }
+    }
+
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private static StringBuilder appendJson(StringBuilder line, String value) {
+        if (value == null) {
+            return line.append("null");
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        return line.append('"');
+    }
+
+    /*UTF-8 encodes lines into one reusable direct buffer and writes it
+      to the channel whenever it fills up.*/
+    private static final class LineWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+        private LineWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void write(CharSequence line) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(line);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isError()) {
+                    result.throwException();
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            drain();
+            channel.force(false);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
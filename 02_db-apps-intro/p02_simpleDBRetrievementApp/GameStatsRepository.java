@@ -0,0 +1,54 @@
+package com.company.p02_simpleDBRetrievementApp;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+public class GameStatsRepository {
+    private final DataSource dataSource;
+
+    public GameStatsRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public Optional<GameStats> findByUserName(String userName) throws SQLException {
+        String query =
+                        "SELECT\n" +
+                        "       u.id,\n" +
+                        "       u.first_name,\n" +
+                        "       u.last_name,\n" +
+                        "       u.user_name,\n" +
+                        "       COUNT(g.id) AS num_of_played_games\n" +
+                        "FROM games g\n" +
+                        "JOIN users_games ug\n" +
+                        "ON g.id = ug.game_id\n" +
+                        "JOIN users u\n" +
+                        "ON ug.user_id = u.id\n" +
+                        "WHERE g.is_finished AND user_name = ?\n" +
+                        "GROUP BY u.id,\n" +
+                        "         u.user_name,\n" +
+                        "         u.first_name,\n" +
+                        "         u.last_name\n" +
+                        "ORDER BY u.user_name;";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            preparedStatement.setString(1, userName);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Optional.empty();
+                }
+                return Optional.of(new GameStats(
+                        resultSet.getLong("id"),
+                        resultSet.getString("user_name"),
+                        resultSet.getString("first_name"),
+                        resultSet.getString("last_name"),
+                        resultSet.getInt("num_of_played_games")));
+            }
+        }
+    }
+}
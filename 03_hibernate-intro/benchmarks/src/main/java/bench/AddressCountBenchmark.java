@@ -0,0 +1,92 @@
+package bench;
+
+import entities.Address;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*Problem 6 before and after: loading every Address and sizing its lazy
+  employees collection (one select per address) against the single
+  GROUP BY query in App.getAddressesEmpCount. The setup runs both once
+  and fails the trial unless the aggregate issues exactly one statement
+  and the two agree on every count.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddressCountBenchmark {
+    @Param({"1000", "10000"})
+    public int employees;
+
+    private SoftUniDb db;
+    private AppHandle app;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        db = new SoftUniDb(employees);
+        em = db.createEntityManager();
+        app = new AppHandle(em);
+
+        Statistics statistics = db.getStatistics();
+        statistics.clear();
+        Map<String, Integer> expected = perAddressCollections();
+        long perAddressStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        Map<String, Integer> actual = aggregate();
+        long aggregateStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("%n%d addresses: per-address collections ran %d statements, aggregate ran %d%n",
+                expected.size(), perAddressStatements, aggregateStatements);
+        if (aggregateStatements != 1) {
+            throw new IllegalStateException("Aggregate ran " + aggregateStatements + " statements");
+        }
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Aggregate counts differ from the per-address counts");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        db.close();
+    }
+
+    /*The original implementation, kept here as the baseline.*/
+    @Benchmark
+    public Map<String, Integer> perAddressCollections() {
+        em.clear();
+        List<Address> addresses = em
+                .createQuery("FROM Address", Address.class)
+                .getResultList();
+        Map<String, Integer> result = new HashMap<>();
+        addresses.forEach(a -> result.merge(a.getText(), a.getEmployees().size(), Integer::sum));
+        return result;
+    }
+
+    @Benchmark
+    public Map<String, Integer> aggregate() throws Throwable {
+        em.clear();
+        return app.getAddressesEmpCount();
+    }
+}
@@ -0,0 +1,54 @@
+package bench;
+
+import dto.DepartmentMaxSalary;
+
+import javax.persistence.EntityManager;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/*App lives in the default package, which a named package cannot import,
+  and its problem methods are private statics working on a static
+  EntityManager. The handles are resolved once per trial so the measured
+  calls only pay for a direct invoke.*/
+public class AppHandle {
+    private final Field em;
+    private final MethodHandle getAddressesEmpCount;
+    private final MethodHandle getDepartmentsMaxSalary;
+
+    public AppHandle(EntityManager entityManager) throws ReflectiveOperationException {
+        Class<?> appClass = Class.forName("App");
+        this.em = appClass.getDeclaredField("em");
+        this.em.setAccessible(true);
+        this.em.set(null, entityManager);
+        this.getAddressesEmpCount = find(appClass, "getAddressesEmpCount");
+        this.getDepartmentsMaxSalary = find(appClass, "getDepartmentsMaxSalary",
+                BigDecimal.class, BigDecimal.class);
+    }
+
+    static MethodHandle find(Class<?> appClass, String name, Class<?>... parameterTypes)
+            throws ReflectiveOperationException {
+        Method method = appClass.getDeclaredMethod(name, parameterTypes);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+    }
+
+    public EntityManager getEntityManager() throws IllegalAccessException {
+        return (EntityManager) em.get(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Integer> getAddressesEmpCount() throws Throwable {
+        return (Map<String, Integer>) getAddressesEmpCount.invoke();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<DepartmentMaxSalary> getDepartmentsMaxSalary(
+            BigDecimal lowerBound, BigDecimal upperBound) throws Throwable {
+        return (List<DepartmentMaxSalary>) getDepartmentsMaxSalary.invoke(lowerBound, upperBound);
+    }
+}
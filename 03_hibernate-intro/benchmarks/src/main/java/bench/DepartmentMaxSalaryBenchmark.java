@@ -0,0 +1,98 @@
+package bench;
+
+import dto.DepartmentMaxSalary;
+import entities.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*Problem 12: the GROUP BY projection in App.getDepartmentsMaxSalary
+  against loading every employee with its department and reducing in
+  Java. The setup checks that both return the same departments.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DepartmentMaxSalaryBenchmark {
+    private static final BigDecimal LOWER_BOUND = new BigDecimal("30000");
+    private static final BigDecimal UPPER_BOUND = new BigDecimal("70000");
+
+    @Param({"1000", "10000", "100000"})
+    public int employees;
+
+    private SoftUniDb db;
+    private AppHandle app;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        db = new SoftUniDb(employees);
+        em = db.createEntityManager();
+        app = new AppHandle(em);
+
+        String expected = inJavaReduction().toString();
+        String actual = aggregate().toString();
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("In-Java reduction " + expected + " differs from " + actual);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        db.close();
+    }
+
+    @Benchmark
+    public List<DepartmentMaxSalary> inJavaReduction() {
+        em.clear();
+        Map<Integer, DepartmentMaxSalary> maxByDepartment = em
+                .createQuery("FROM Employee e JOIN FETCH e.department", Employee.class)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(
+                        e -> e.getDepartment().getId(),
+                        e -> new DepartmentMaxSalary(e.getDepartment().getName(), e.getSalary()),
+                        (a, b) -> a.getMaxSalary().compareTo(b.getMaxSalary()) >= 0 ? a : b,
+                        LinkedHashMap::new));
+        List<Integer> departmentIds = new ArrayList<>(maxByDepartment.keySet());
+        departmentIds.sort(Comparator.naturalOrder());
+        List<DepartmentMaxSalary> result = new ArrayList<>();
+        for (Integer id : departmentIds) {
+            DepartmentMaxSalary department = maxByDepartment.get(id);
+            if (department.getMaxSalary().compareTo(LOWER_BOUND) < 0
+                    || department.getMaxSalary().compareTo(UPPER_BOUND) > 0) {
+                result.add(department);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<DepartmentMaxSalary> aggregate() throws Throwable {
+        em.clear();
+        return app.getDepartmentsMaxSalary(LOWER_BOUND, UPPER_BOUND);
+    }
+}
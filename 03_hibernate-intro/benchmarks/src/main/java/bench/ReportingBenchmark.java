@@ -0,0 +1,139 @@
+package bench;
+
+import dto.EmployeeDepartmentSalary;
+import dto.ProjectSummary;
+import entities.Employee;
+import entities.Project;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.EmployeeReports;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/*Problems 4 and 8: the read-only DTO reports in EmployeeReports against
+  the entity queries App used before, which leave every row managed in
+  the long-lived EntityManager together with its dirty-checking snapshot.
+  Problem 3 already selected a scalar and is not repeated here.
+  The setup checks that both variants print the same rows and reports the
+  allocation of one call and how many entities stay managed; -prof gc
+  gives the allocation rate over the whole run.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportingBenchmark {
+    private static final String DEPARTMENT = "Research and Development";
+    private static final int LAST_PROJECTS = 10;
+
+    @Param({"1000", "10000", "100000"})
+    public int employees;
+
+    private SoftUniDb db;
+    private EntityManager em;
+    private EmployeeReports reports;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = new SoftUniDb(employees);
+        em = db.createEntityManager();
+        reports = new EmployeeReports(db.getEntityManagerFactory());
+
+        check(entityEmployeesFromDepartment().stream()
+                        .map(e -> new EmployeeDepartmentSalary(e.getFirstName(), e.getLastName(),
+                                e.getDepartment().getName(), e.getSalary()).toString())
+                        .collect(Collectors.toList()),
+                employeesFromDepartment().stream()
+                        .map(EmployeeDepartmentSalary::toString)
+                        .collect(Collectors.toList()),
+                "Employees from department");
+        check(entityLastStartedProjects().stream()
+                        .map(p -> p.getName() + " " + p.getStartDate())
+                        .collect(Collectors.toList()),
+                lastStartedProjects().stream()
+                        .map(p -> p.getName() + " " + p.getStartDate())
+                        .collect(Collectors.toList()),
+                "Last started projects");
+
+        long entityBytes = allocatedBytes(this::entityEmployeesFromDepartment);
+        long dtoBytes = allocatedBytes(this::employeesFromDepartment);
+        System.out.printf("%nEmployees from %s: entities allocate %,d bytes per call and leave %,d "
+                        + "managed in the EntityManager, DTOs allocate %,d bytes%n",
+                DEPARTMENT, entityBytes, managedEntities(), dtoBytes);
+        em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        db.close();
+    }
+
+    @Benchmark
+    public List<Employee> entityEmployeesFromDepartment() {
+        em.clear();
+        return em.createQuery(
+                "FROM Employee WHERE department.name = :name ORDER BY salary, id", Employee.class)
+                .setParameter("name", DEPARTMENT)
+                .setHint("javax.persistence.fetchgraph", em.getEntityGraph(Employee.SUMMARY_GRAPH))
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<EmployeeDepartmentSalary> employeesFromDepartment() {
+        return reports.employeesFromDepartment(DEPARTMENT);
+    }
+
+    @Benchmark
+    public List<Project> entityLastStartedProjects() {
+        em.clear();
+        return em.createQuery("FROM Project ORDER BY startDate DESC", Project.class)
+                .setMaxResults(LAST_PROJECTS)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<ProjectSummary> lastStartedProjects() {
+        return reports.lastStartedProjects(LAST_PROJECTS);
+    }
+
+    private int managedEntities() {
+        return em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+    }
+
+    private static void check(List<String> expected, List<String> actual, String report) {
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException(report + " differs between the entity and DTO queries");
+        }
+    }
+
+    /*Bytes allocated by this thread for one call, once query plans and
+      other one-off state exist.*/
+    private static long allocatedBytes(Supplier<List<?>> report) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        report.get();
+        long before = threads.getThreadAllocatedBytes(thread);
+        report.get();
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+}
@@ -0,0 +1,158 @@
+package bench;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+/*In-memory H2 copy of soft_uni, seeded with a configurable number of
+  employees. The schema comes from the entity mappings; the rows are
+  inserted with plain JDBC batches so seeding stays cheap.*/
+public class SoftUniDb implements AutoCloseable {
+    public static final String[] DEPARTMENTS = {
+            "Engineering", "Tool Design", "Sales", "Marketing", "Purchasing",
+            "Research and Development", "Production", "Production Control",
+            "Human Resources", "Finance", "Information Services",
+            "Document Control", "Quality Assurance", "Facilities and Maintenance",
+            "Shipping and Receiving", "Executive"
+    };
+    public static final String[] FIRST_NAMES = {
+            "Guy", "Kevin", "Roberto", "Rob", "Thierry", "David", "JoLynn", "Ruth",
+            "Gail", "Barry", "Jossef", "Terri", "Sidney", "Taylor", "Jeffrey",
+            "Jo", "Doris", "John", "Diane", "Steven", "Peter", "Stuart", "Greg"
+    };
+    /*Every employee except the first reports to one of the previous ones,
+      five reports per manager.*/
+    public static final int REPORTS_PER_MANAGER = 5;
+    private static final int BATCH_SIZE = 1000;
+
+    private final EntityManagerFactory emf;
+    private final int employeeCount;
+
+    public SoftUniDb(int employeeCount) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.connection.url",
+                "jdbc:h2:mem:soft_uni_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        this.emf = Persistence.createEntityManagerFactory("soft_uni_bench", properties);
+        this.employeeCount = employeeCount;
+        seed();
+    }
+
+    public static int townCount(int employeeCount) {
+        return Math.max(10, employeeCount / 100);
+    }
+
+    public static int addressCount(int employeeCount) {
+        return Math.max(1, employeeCount / 2);
+    }
+
+    public static int projectCount(int employeeCount) {
+        return Math.max(10, employeeCount / 10);
+    }
+
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    public EntityManager createEntityManager() {
+        return emf.createEntityManager();
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return emf;
+    }
+
+    public Statistics getStatistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void seed() {
+        int towns = townCount(employeeCount);
+        int addresses = addressCount(employeeCount);
+        int projects = projectCount(employeeCount);
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.unwrap(Session.class).doWork(connection -> {
+                insertRows(connection, "INSERT INTO towns (name) VALUES (?)", towns,
+                        (statement, i) -> statement.setString(1, "Town " + i));
+                insertRows(connection, "INSERT INTO addresses (address_text, town_id) VALUES (?, ?)", addresses,
+                        (statement, i) -> {
+                            statement.setString(1, i + " Main Street");
+                            statement.setInt(2, i % towns + 1);
+                        });
+                insertRows(connection, "INSERT INTO departments (name) VALUES (?)", DEPARTMENTS.length,
+                        (statement, i) -> statement.setString(1, DEPARTMENTS[i]));
+                insertRows(connection,
+                        "INSERT INTO employees (first_name, last_name, middle_name, job_title, department_id,\n" +
+                                "                       manager_id, hire_date, salary, address_id)\n" +
+                                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", employeeCount,
+                        (statement, i) -> {
+                            statement.setString(1, FIRST_NAMES[i % FIRST_NAMES.length]);
+                            statement.setString(2, "Employee" + i);
+                            statement.setString(3, null);
+                            statement.setString(4, "Job " + i % 20);
+                            statement.setInt(5, i % DEPARTMENTS.length + 1);
+                            if (i == 0) {
+                                statement.setNull(6, Types.INTEGER);
+                            } else {
+                                statement.setInt(6, (i - 1) / REPORTS_PER_MANAGER + 1);
+                            }
+                            statement.setTimestamp(7, new Timestamp(1_000_000_000_000L + i * 86_400_000L));
+                            statement.setBigDecimal(8, BigDecimal.valueOf(10_000 + (i * 7_919L) % 90_000));
+                            statement.setInt(9, i % addresses + 1);
+                        });
+                insertRows(connection, "INSERT INTO projects (name, description, start_date) VALUES (?, ?, ?)",
+                        projects,
+                        (statement, i) -> {
+                            statement.setString(1, "Project " + i);
+                            statement.setString(2, "Description of project " + i);
+                            statement.setTimestamp(3, new Timestamp(1_100_000_000_000L + i * 3_600_000L));
+                        });
+                insertRows(connection, "INSERT INTO employees_projects (employee_id, project_id) VALUES (?, ?)",
+                        employeeCount * 2,
+                        (statement, i) -> {
+                            statement.setInt(1, i / 2 + 1);
+                            statement.setInt(2, (i / 2 + i % 2 * (projects / 2)) % projects + 1);
+                        });
+            });
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void insertRows(Connection connection, String query, int count,
+                                   RowBinder binder) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            for (int i = 0; i < count; i++) {
+                binder.bind(statement, i);
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Override
+    public void close() {
+        emf.close();
+    }
+
+    private interface RowBinder {
+        void bind(PreparedStatement statement, int row) throws SQLException;
+    }
+}
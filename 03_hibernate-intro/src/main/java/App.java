@@ -1,20 +1,47 @@
+import dto.DepartmentMaxSalary;
+import dto.EmployeeDepartmentSalary;
+import dto.ProjectSummary;
+import dto.TownRemoval;
 import entities.*;
 
+import metrics.HibernateMetrics;
+import services.EmployeeNameIndex;
+import services.EmployeeReports;
+import services.ManagerHierarchyService;
+
 import javax.persistence.*;
 import javax.persistence.criteria.CriteriaBuilder;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class App {
 
+    private static final BigDecimal SALARY_RAISE_FACTOR = new BigDecimal("1.12");
+    private static final int PREVIEW_FETCH_SIZE = 500;
+    private static final int SEARCH_PAGE_SIZE = 50;
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
     private static EntityManager em;
+    private static ManagerHierarchyService hierarchy;
+    private static EmployeeNameIndex nameIndex;
+    private static EmployeeReports reports;
 
     public static void main(String[] args) {
         EntityManagerFactory emf = Persistence
                 .createEntityManagerFactory("soft_uni");
         em = emf.createEntityManager();
-        getDepartmentsMaxSalary();
+        hierarchy = new ManagerHierarchyService(emf);
+        nameIndex = new EmployeeNameIndex(emf);
+        reports = new EmployeeReports(emf);
+        new HibernateMetrics(emf).printSummaryOnShutdown();
+        if (args.length > 0 && args[0].equals("--preview-raise")) {
+            testProblem9(true);
+            return;
+        }
+        testProblem12();
     }
 
     /*Problem 1: Remove Objects*/
@@ -51,22 +78,16 @@ public class App {
         }
     }
 
-    /*Problem 3: Employees with salary over 50000*/
+    /*Problem 3: Employees with salary over 50000
+        Problems 3, 4 and 8 only print their results, so they run as
+        read-only reports returning DTOs instead of managed entities.*/
     private static List<String> getHighSalaryNames(BigDecimal salaryLowerBound) {
-        String query =
-                "SELECT firstName FROM Employee WHERE salary > :salary";
-        return em.createQuery(query, String.class)
-                .setParameter("salary", salaryLowerBound)
-                .getResultList();
+        return reports.highSalaryNames(salaryLowerBound);
     }
 
     /*Problem 4: Employees from Department*/
-    private static List<Employee> getEmpsFromDept(String department) {
-        String query =
-                "FROM Employee WHERE department.name = :name";
-        return em.createQuery(query, Employee.class)
-                .setParameter("name", department)
-                .getResultList();
+    private static List<EmployeeDepartmentSalary> getEmpsFromDept(String department) {
+        return reports.employeesFromDepartment(department);
     }
 
     /*Problem 5: Adding a New Address and
@@ -93,19 +114,25 @@ public class App {
         em.getTransaction().commit();
     }
 
-    /*Problem 6: Addresses with employee count*/
+    /*Problem 6: Addresses with employee count
+        Counted by the database in one query instead of loading every
+        address and initializing its employees collection. Addresses
+        sharing the same text are summed.*/
     private static HashMap<String, Integer> getAddressesEmpCount() {
-
-        List<Address> addresses = em
+        List<Object[]> rows = em
                 .createQuery(
-                        "FROM Address",
-                        Address.class)
+                        "SELECT a.text, COUNT(e.id) " +
+                                "FROM Address a " +
+                                "LEFT JOIN a.employees e " +
+                                "GROUP BY a.id, a.text",
+                        Object[].class)
                 .getResultList();
-        HashMap<String, Integer> result = new HashMap<>();
-        addresses
-                .forEach(a -> result.put(
-                        a.getText(),
-                        a.getEmployees().size()));
+        HashMap<String, Integer> result = new HashMap<>(rows.size() * 4 / 3 + 1);
+        rows
+                .forEach(r -> result.merge(
+                        (String) r[0],
+                        ((Number) r[1]).intValue(),
+                        Integer::sum));
         return result;
     }
 
@@ -114,9 +141,32 @@ public class App {
         return em.createQuery(
                 "FROM Employee WHERE id = :param", Employee.class)
                 .setParameter("param", id)
+                .setHint(FETCH_GRAPH, em.getEntityGraph(Employee.WITH_PROJECTS_GRAPH))
                 .getSingleResult();
     }
 
+    private static Employee getEmpWithManagers(int id) {
+        return em.createQuery(
+                "FROM Employee WHERE id = :param", Employee.class)
+                .setParameter("param", id)
+                .setHint(FETCH_GRAPH, em.getEntityGraph(Employee.WITH_MANAGER_CHAIN_GRAPH))
+                .getSingleResult();
+    }
+
+    private static void printManagerChain(Employee employee) {
+        StringBuilder chain = new StringBuilder(
+                employee.getFirstName() + " " + employee.getLastName());
+        for (Employee manager = employee.getManager();
+             manager != null;
+             manager = manager.getManager()) {
+            chain.append(" -> ")
+                    .append(manager.getFirstName())
+                    .append(' ')
+                    .append(manager.getLastName());
+        }
+        System.out.println(chain);
+    }
+
     private static void printEmployeeInfo(Employee employee) {
         String employeeProjects =
                 employee.getProjects().stream()
@@ -130,18 +180,21 @@ public class App {
                 employeeProjects);
     }
 
+    /*Everyone under a manager, answered from the cached org chart*/
+    private static void printReportsUnder(int managerId) {
+        int[] reports = hierarchy.reportsUnder(managerId);
+        System.out.printf("%d employees report to %d\n\t%s\n",
+                reports.length,
+                managerId,
+                Arrays.toString(reports));
+    }
+
     /*Problem 8: Find Latest 10 Projects*/
-    private static List<Project> findLastStartedProjects() {
-        TypedQuery<Project> query =
-                em.createQuery(
-                        "FROM Project " +
-                                "ORDER BY startDate DESC",
-                        Project.class);
-        query.setMaxResults(10);
-        return query.getResultList();
+    private static List<ProjectSummary> findLastStartedProjects() {
+        return reports.lastStartedProjects(10);
     }
 
-    private static void printProjectInfo(Project project) {
+    private static void printProjectInfo(ProjectSummary project) {
         System.out.printf(
                 "Project name: %s\n" +
                         "\tProject description: %s\n" +
@@ -160,14 +213,58 @@ public class App {
                         "WHERE department.name = :name",
                 Employee.class)
                 .setParameter("name", depName)
+                .setHint(FETCH_GRAPH, em.getEntityGraph(Employee.SUMMARY_GRAPH))
                 .getResultList();
     }
 
-    private static void increaseEmpSalary(Employee emp) {
-        emp.setSalary(
-                emp.getSalary().multiply(
-                        new BigDecimal(1.12)));
-        inTransaction(() -> em.persist(emp));
+    /*Raises every salary in the given departments with one UPDATE in
+        one transaction. The UPDATE bypasses the persistence context, so
+        it is cleared afterwards and later reads see the new salaries.
+        The department filter is a subquery because a bulk UPDATE cannot
+        join.*/
+    private static int increaseSalaries(
+            Collection<String> departments, BigDecimal factor) {
+        int updated = inTransaction(() -> em.createQuery(
+                "UPDATE Employee e " +
+                        "SET e.salary = e.salary * :factor " +
+                        "WHERE e.department.id IN (" +
+                        "SELECT d.id FROM Department d " +
+                        "WHERE d.name IN :names)")
+                .setParameter("factor", factor)
+                .setParameter("names", departments)
+                .executeUpdate());
+        em.clear();
+        return updated;
+    }
+
+    /*Prints what increaseSalaries would change without changing it.
+        Rows are read as scalars through a read-only cursor, fetched
+        PREVIEW_FETCH_SIZE at a time (the soft_uni URL sets
+        useCursorFetch), so nothing is added to the persistence context.
+        Returns the number of affected employees.*/
+    private static long previewSalaryIncrease(
+            Collection<String> departments, BigDecimal factor) {
+        org.hibernate.query.Query<Object[]> query = em.createQuery(
+                "SELECT e.firstName, e.lastName, e.salary " +
+                        "FROM Employee e " +
+                        "WHERE e.department.name IN :names " +
+                        "ORDER BY e.id",
+                Object[].class)
+                .setParameter("names", departments)
+                .unwrap(org.hibernate.query.Query.class);
+        query.setReadOnly(true);
+        query.setFetchSize(PREVIEW_FETCH_SIZE);
+
+        try (Stream<Object[]> rows = query.stream()) {
+            return rows
+                    .peek(r -> System.out.printf(
+                            "%s %s ($%.2f -> $%.2f)\n",
+                            r[0],
+                            r[1],
+                            r[2],
+                            ((BigDecimal) r[2]).multiply(factor)))
+                    .count();
+        }
     }
 
     private static void printEmpSalaryInfo(Employee emp) {
@@ -178,54 +275,130 @@ public class App {
                 emp.getSalary());
     }
 
-    private static void inTransaction(Runnable runnable) {
-        em.getTransaction().begin();
-        runnable.run();
-        em.getTransaction().commit();
+    private static <T> T inTransaction(Supplier<T> work) {
+        EntityTransaction transaction = em.getTransaction();
+        transaction.begin();
+        try {
+            T result = work.get();
+            transaction.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
     }
 
-    private static void testProblem9() {
+    /*With preview set only the planned raises are printed.*/
+    private static void testProblem9(boolean preview) {
         String[] promoteDepartments = {
                 "Engineering",
                 "Tool Design",
                 "Marketing",
                 "Information Services"
         };
+        if (preview) {
+            long affected = previewSalaryIncrease(
+                    Arrays.asList(promoteDepartments),
+                    SALARY_RAISE_FACTOR);
+            System.out.printf("%d salaries would be raised\n", affected);
+            return;
+        }
+        increaseSalaries(
+                Arrays.asList(promoteDepartments),
+                SALARY_RAISE_FACTOR);
         for (String department : promoteDepartments) {
             getEmpFromDept(department)
-                    .forEach(e -> {
-                        increaseEmpSalary(e);
-                        printEmpSalaryInfo(e);
-                    });
+                    .forEach(App::printEmpSalaryInfo);
+        }
+    }
+
+    /*Problem 10: Remove Towns
+        Employees living in the town lose their address, then its
+        addresses and the town itself are deleted, one statement each and
+        all in one transaction. The statements bypass the persistence
+        context, so it is cleared afterwards.*/
+    private static TownRemoval removeTown(String townName) {
+        int townId = getTownId(townName);
+        TownRemoval removal = inTransaction(() -> {
+            int employees = em.createQuery(
+                    "UPDATE Employee e SET e.address = NULL " +
+                            "WHERE e.address.id IN (" +
+                            "SELECT a.id FROM Address a " +
+                            "WHERE a.town.id = :townId)")
+                    .setParameter("townId", townId)
+                    .executeUpdate();
+            int addresses = em.createQuery(
+                    "DELETE FROM Address a WHERE a.town.id = :townId")
+                    .setParameter("townId", townId)
+                    .executeUpdate();
+            return new TownRemoval(employees, addresses, deleteTown(townId));
+        });
+        em.clear();
+        return removal;
+    }
+
+    /*Same as removeTown for towns with too many addresses for a single
+        transaction: addresses are handled chunkSize at a time, each chunk
+        committed on its own and the persistence context cleared after
+        it. A failure leaves the chunks already committed removed, and
+        calling it again finishes the job.*/
+    private static TownRemoval removeTownInChunks(String townName, int chunkSize) {
+        int townId = getTownId(townName);
+        int employees = 0;
+        int addresses = 0;
+        int lastAddressId = 0;
+        while (true) {
+            List<Integer> addressIds = em.createQuery(
+                    "SELECT a.id FROM Address a " +
+                            "WHERE a.town.id = :townId AND a.id > :lastId " +
+                            "ORDER BY a.id",
+                    Integer.class)
+                    .setParameter("townId", townId)
+                    .setParameter("lastId", lastAddressId)
+                    .setMaxResults(chunkSize)
+                    .getResultList();
+            if (addressIds.isEmpty()) {
+                break;
+            }
+            int[] chunk = inTransaction(() -> new int[]{
+                    em.createQuery(
+                            "UPDATE Employee e SET e.address = NULL " +
+                                    "WHERE e.address.id IN :ids")
+                            .setParameter("ids", addressIds)
+                            .executeUpdate(),
+                    em.createQuery(
+                            "DELETE FROM Address a WHERE a.id IN :ids")
+                            .setParameter("ids", addressIds)
+                            .executeUpdate()
+            });
+            employees += chunk[0];
+            addresses += chunk[1];
+            lastAddressId = addressIds.get(addressIds.size() - 1);
+            em.clear();
         }
+        int towns = inTransaction(() -> deleteTown(townId));
+        em.clear();
+        return new TownRemoval(employees, addresses, towns);
     }
 
-    /*Problem 10: Remove Towns*/
-    private static int removeTown(String townName) {
-        Town townToRemove = em.createQuery(
-                "FROM Town WHERE name = :name", Town.class)
+    private static int getTownId(String townName) {
+        return em.createQuery(
+                "SELECT t.id FROM Town t WHERE t.name = :name", Integer.class)
                 .setParameter("name", townName)
                 .getSingleResult();
-        List<Address> addressesFromTown = getTownAddresses(townToRemove);
-
-        inTransaction(() -> {
-            addressesFromTown
-                    .forEach(em::remove);
-            em.remove(townToRemove);
-        });
-        return addressesFromTown.size();
     }
 
-    private static List<Address> getTownAddresses(Town town) {
+    private static int deleteTown(int townId) {
         return em.createQuery(
-                "FROM Address WHERE town = :town",
-                Address.class)
-                .setParameter("town", town)
-                .getResultList();
+                "DELETE FROM Town t WHERE t.id = :townId")
+                .setParameter("townId", townId)
+                .executeUpdate();
     }
 
     private static void testProblem10(String townToRemove) {
-        int removedAddresses = removeTown(townToRemove);
+        int removedAddresses = removeTown(townToRemove).getAddressesDeleted();
         String addressPostfix =
                 removedAddresses == 1 ?
                         "" :
@@ -238,14 +411,36 @@ public class App {
         );
     }
 
-    /*Problem 11: Find Employees by First Name*/
-    private static List<Employee> getEmpsByPattern(String pattern) {
-        return em.createQuery(
-                "FROM Employee WHERE UPPER(firstName) " +
-                        "LIKE UPPER(:pattern) ",
+    /*Problem 11: Find Employees by First Name
+        Matching ids come from the in-memory name index, ordered by first
+        name; only the employees on the requested page are loaded. The
+        pattern is a plain prefix, compared case- and accent-insensitively.
+        after is the last employee of the previous page, or null for the
+        first page.*/
+    private static List<Employee> getEmpsByPattern(
+            String pattern, Employee after, int pageSize) {
+        int[] ids = after == null ?
+                nameIndex.findByFirstName(pattern, pageSize) :
+                nameIndex.findByFirstName(pattern, after.getFirstName(), after.getId(), pageSize);
+        List<Integer> pageIds = new ArrayList<>(pageSize);
+        for (int id : ids) {
+            pageIds.add(id);
+        }
+        if (pageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Integer, Employee> employees = em.createQuery(
+                "FROM Employee WHERE id IN :ids",
                 Employee.class)
-                .setParameter("pattern", pattern + "%")
-                .getResultList();
+                .setParameter("ids", pageIds)
+                .setHint(FETCH_GRAPH, em.getEntityGraph(Employee.SUMMARY_GRAPH))
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(Employee::getId, e -> e));
+        return pageIds.stream()
+                .map(employees::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     private static void printEmpJobSalary(Employee employee) {
@@ -258,12 +453,55 @@ public class App {
     }
 
     private static void testProblem11(String pattern) {
-        getEmpsByPattern(pattern)
-                .forEach(App::printEmpJobSalary);
+        Employee last = null;
+        while (true) {
+            List<Employee> employees =
+                    getEmpsByPattern(pattern, last, SEARCH_PAGE_SIZE);
+            if (employees.isEmpty()) {
+                break;
+            }
+            employees.forEach(App::printEmpJobSalary);
+            last = employees.get(employees.size() - 1);
+        }
     }
 
-    /*Problem 12: Employees Maximum Salaries*/
-    private static void getDepartmentsMaxSalary() {
+    /*Problem 12: Employees Maximum Salaries
+        One GROUP BY over employees. Once sql/soft_uni-indexes.sql has
+        added the (department_id, salary) index, it is answered from the
+        index alone. Only departments whose highest salary falls outside
+        [lowerBound, upperBound] are returned; a null bound leaves that
+        side open, and two nulls return every department.*/
+    private static List<DepartmentMaxSalary> getDepartmentsMaxSalary(
+            BigDecimal lowerBound, BigDecimal upperBound) {
+        List<String> outside = new ArrayList<>();
+        if (lowerBound != null) {
+            outside.add("MAX(e.salary) < :lowerBound");
+        }
+        if (upperBound != null) {
+            outside.add("MAX(e.salary) > :upperBound");
+        }
+        String query =
+                "SELECT NEW dto.DepartmentMaxSalary(d.name, MAX(e.salary)) " +
+                        "FROM Employee e " +
+                        "JOIN e.department d " +
+                        "GROUP BY d.id, d.name " +
+                        (outside.isEmpty() ? "" : "HAVING " + String.join(" OR ", outside) + " ") +
+                        "ORDER BY d.id";
+        TypedQuery<DepartmentMaxSalary> typedQuery =
+                em.createQuery(query, DepartmentMaxSalary.class);
+        if (lowerBound != null) {
+            typedQuery.setParameter("lowerBound", lowerBound);
+        }
+        if (upperBound != null) {
+            typedQuery.setParameter("upperBound", upperBound);
+        }
+        return typedQuery.getResultList();
+    }
 
+    private static void testProblem12() {
+        getDepartmentsMaxSalary(
+                new BigDecimal("30000"),
+                new BigDecimal("70000"))
+                .forEach(System.out::println);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package dto;
+
+import java.math.BigDecimal;
+
+public class DepartmentMaxSalary {
+    private final String departmentName;
+    private final BigDecimal maxSalary;
+
+    public DepartmentMaxSalary(String departmentName, BigDecimal maxSalary) {
+        this.departmentName = departmentName;
+        this.maxSalary = maxSalary;
+    }
+
+    public String getDepartmentName() {
+        return departmentName;
+    }
+
+    public BigDecimal getMaxSalary() {
+        return maxSalary;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %.2f", departmentName, maxSalary);
+    }
+}
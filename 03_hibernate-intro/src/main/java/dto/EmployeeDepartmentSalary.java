@@ -0,0 +1,40 @@
+package dto;
+
+import java.math.BigDecimal;
+
+public class EmployeeDepartmentSalary {
+    private final String firstName;
+    private final String lastName;
+    private final String departmentName;
+    private final BigDecimal salary;
+
+    public EmployeeDepartmentSalary(String firstName, String lastName,
+                                    String departmentName, BigDecimal salary) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.departmentName = departmentName;
+        this.salary = salary;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getDepartmentName() {
+        return departmentName;
+    }
+
+    public BigDecimal getSalary() {
+        return salary;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s from %s - $%.2f",
+                firstName, lastName, departmentName, salary);
+    }
+}
@@ -0,0 +1,34 @@
+package dto;
+
+import java.util.Date;
+
+public class ProjectSummary {
+    private final String name;
+    private final String description;
+    private final Date startDate;
+    private final Date endDate;
+
+    public ProjectSummary(String name, String description,
+                          Date startDate, Date endDate) {
+        this.name = name;
+        this.description = description;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Date getStartDate() {
+        return startDate;
+    }
+
+    public Date getEndDate() {
+        return endDate;
+    }
+}
@@ -0,0 +1,26 @@
+package dto;
+
+/*Rows touched by removing a town.*/
+public class TownRemoval {
+    private final int employeesUpdated;
+    private final int addressesDeleted;
+    private final int townsDeleted;
+
+    public TownRemoval(int employeesUpdated, int addressesDeleted, int townsDeleted) {
+        this.employeesUpdated = employeesUpdated;
+        this.addressesDeleted = addressesDeleted;
+        this.townsDeleted = townsDeleted;
+    }
+
+    public int getEmployeesUpdated() {
+        return employeesUpdated;
+    }
+
+    public int getAddressesDeleted() {
+        return addressesDeleted;
+    }
+
+    public int getTownsDeleted() {
+        return townsDeleted;
+    }
+}
@@ -6,8 +6,36 @@ import java.sql.Timestamp;
 import java.util.Set;
 
 @Entity
-@Table(name = "employees")
+@Table(name = "employees",
+        indexes = @Index(name = "ix_employees_department_salary",
+                columnList = "department_id, salary"))
+@NamedEntityGraphs({
+        @NamedEntityGraph(
+                name = Employee.SUMMARY_GRAPH,
+                attributeNodes = @NamedAttributeNode("department")),
+        @NamedEntityGraph(
+                name = Employee.WITH_PROJECTS_GRAPH,
+                attributeNodes = @NamedAttributeNode("projects")),
+        @NamedEntityGraph(
+                name = Employee.WITH_MANAGER_CHAIN_GRAPH,
+                attributeNodes = @NamedAttributeNode(value = "manager", subgraph = "manager"),
+                subgraphs = {
+                        @NamedSubgraph(
+                                name = "manager",
+                                attributeNodes = @NamedAttributeNode(value = "manager", subgraph = "manager-of-manager")),
+                        @NamedSubgraph(
+                                name = "manager-of-manager",
+                                attributeNodes = @NamedAttributeNode("manager"))
+                })
+})
 public class Employee {
+    /*Fetch plans for the queries in App. Every association is lazy, so
+      a query loads only what its graph names, joined into the same select.*/
+    public static final String SUMMARY_GRAPH = "summary";
+    public static final String WITH_PROJECTS_GRAPH = "with-projects";
+    /*The manager, their manager and that one's manager.*/
+    public static final String WITH_MANAGER_CHAIN_GRAPH = "with-manager-chain";
+
     private Integer id;
     private String firstName;
     private String lastName;
@@ -68,7 +96,7 @@ public class Employee {
         this.jobTitle = jobTitle;
     }
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id", referencedColumnName = "department_id")
     public Department getDepartment() {
         return department;
@@ -78,7 +106,7 @@ public class Employee {
         this.department = department;
     }
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "manager_id", referencedColumnName = "employee_id")
     public Employee getManager() {
         return manager;
@@ -106,7 +134,7 @@ public class Employee {
         this.salary = salary;
     }
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "address_id", referencedColumnName = "address_id")
     public Address getAddress() {
         return address;
@@ -0,0 +1,189 @@
+package services;
+
+import entities.Employee;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/*Prefix search over employee first and last names, kept sorted in
+  memory. Loaded with one query and then kept current by post-commit
+  Hibernate events for Employee, so lookups never hit the database.
+  The listener is registered before the first load, and a load that
+  overlaps a change is repeated, so no committed change is lost.
+  Names are compared case- and accent-insensitively, like the default
+  MySQL collation. Bulk JPQL or native changes to names bypass those
+  events and must call put/remove or reload themselves.*/
+public class EmployeeNameIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing((Entry e) -> e.name)
+            .thenComparingInt(e -> e.employeeId);
+
+    private final EntityManagerFactory emf;
+    private final TreeSet<Entry> firstNames = new TreeSet<>(ORDER);
+    private final TreeSet<Entry> lastNames = new TreeSet<>(ORDER);
+    private final Map<Integer, Entry[]> entriesById = new HashMap<>();
+    private long changeCount;
+
+    public EmployeeNameIndex(EntityManagerFactory emf) {
+        this.emf = emf;
+        new NameChangeListener().register(emf);
+        reload();
+    }
+
+    /*Replaces the whole index with the current database state. The
+      query runs outside the lock; if a change arrives meanwhile the rows
+      may predate it, so they are read again.*/
+    public void reload() {
+        while (true) {
+            long seen;
+            synchronized (this) {
+                seen = changeCount;
+            }
+            List<Object[]> rows;
+            EntityManager em = emf.createEntityManager();
+            try {
+                rows = em.createQuery(
+                        "SELECT e.id, e.firstName, e.lastName FROM Employee e",
+                        Object[].class)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+            synchronized (this) {
+                if (changeCount != seen) {
+                    continue;
+                }
+                firstNames.clear();
+                lastNames.clear();
+                entriesById.clear();
+                for (Object[] row : rows) {
+                    index((Integer) row[0], (String) row[1], (String) row[2]);
+                }
+                return;
+            }
+        }
+    }
+
+    /*Ids of up to limit employees whose first name starts with prefix,
+      ordered by name and then id.*/
+    public synchronized int[] findByFirstName(String prefix, int limit) {
+        return find(firstNames, prefix, new Entry(normalize(prefix), Integer.MIN_VALUE), limit);
+    }
+
+    /*The next page after the employee with the given first name and id,
+      usually the last one of the previous page. The position does not
+      depend on that employee still being in the index.*/
+    public synchronized int[] findByFirstName(String prefix, String afterName, int afterId, int limit) {
+        return find(firstNames, prefix, new Entry(normalize(afterName), afterId), limit);
+    }
+
+    public synchronized int[] findByLastName(String prefix, int limit) {
+        return find(lastNames, prefix, new Entry(normalize(prefix), Integer.MIN_VALUE), limit);
+    }
+
+    public synchronized int[] findByLastName(String prefix, String afterName, int afterId, int limit) {
+        return find(lastNames, prefix, new Entry(normalize(afterName), afterId), limit);
+    }
+
+    private static int[] find(TreeSet<Entry> names, String prefix, Entry after, int limit) {
+        String key = normalize(prefix);
+        int[] ids = new int[Math.min(limit, names.size())];
+        int found = 0;
+        for (Entry entry : names.tailSet(after, false)) {
+            if (found == ids.length || !entry.name.startsWith(key)) {
+                break;
+            }
+            ids[found++] = entry.employeeId;
+        }
+        return Arrays.copyOf(ids, found);
+    }
+
+    public synchronized void put(int employeeId, String firstName, String lastName) {
+        changeCount++;
+        index(employeeId, firstName, lastName);
+    }
+
+    public synchronized void remove(int employeeId) {
+        changeCount++;
+        unindex(employeeId);
+    }
+
+    private void index(int employeeId, String firstName, String lastName) {
+        unindex(employeeId);
+        Entry first = new Entry(normalize(firstName), employeeId);
+        Entry last = new Entry(normalize(lastName), employeeId);
+        firstNames.add(first);
+        lastNames.add(last);
+        entriesById.put(employeeId, new Entry[]{first, last});
+    }
+
+    private void unindex(int employeeId) {
+        Entry[] entries = entriesById.remove(employeeId);
+        if (entries != null) {
+            firstNames.remove(entries[0]);
+            lastNames.remove(entries[1]);
+        }
+    }
+
+    public synchronized int size() {
+        return entriesById.size();
+    }
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final int employeeId;
+
+        private Entry(String name, int employeeId) {
+            this.name = name;
+            this.employeeId = employeeId;
+        }
+    }
+
+    private final class NameChangeListener extends EmployeeCommitListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            index(event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            index(event.getEntity());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Employee) {
+                remove((Integer) event.getId());
+            }
+        }
+
+        private void index(Object entity) {
+            if (entity instanceof Employee) {
+                Employee employee = (Employee) entity;
+                put(employee.getId(), employee.getFirstName(), employee.getLastName());
+            }
+        }
+    }
+}
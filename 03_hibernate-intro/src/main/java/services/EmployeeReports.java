@@ -0,0 +1,70 @@
+package services;
+
+import dto.EmployeeDepartmentSalary;
+import dto.ProjectSummary;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+/*Read-only versions of the App queries whose results are only printed.
+  Rows are projected into DTOs with constructor expressions, so no
+  entities are managed and Hibernate keeps no dirty-checking snapshots.
+  Each report runs in its own read-only session that is closed before
+  the result is returned.*/
+public class EmployeeReports {
+    private final EntityManagerFactory emf;
+
+    public EmployeeReports(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    public List<String> highSalaryNames(BigDecimal salaryLowerBound) {
+        return read(em -> em.createQuery(
+                "SELECT e.firstName FROM Employee e WHERE e.salary > :salary",
+                String.class)
+                .setParameter("salary", salaryLowerBound)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList());
+    }
+
+    public List<EmployeeDepartmentSalary> employeesFromDepartment(String department) {
+        return read(em -> em.createQuery(
+                "SELECT NEW dto.EmployeeDepartmentSalary(" +
+                        "e.firstName, e.lastName, d.name, e.salary) " +
+                        "FROM Employee e " +
+                        "JOIN e.department d " +
+                        "WHERE d.name = :name " +
+                        "ORDER BY e.salary, e.id",
+                EmployeeDepartmentSalary.class)
+                .setParameter("name", department)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList());
+    }
+
+    public List<ProjectSummary> lastStartedProjects(int count) {
+        return read(em -> em.createQuery(
+                "SELECT NEW dto.ProjectSummary(" +
+                        "p.name, p.description, p.startDate, p.endDate) " +
+                        "FROM Project p " +
+                        "ORDER BY p.startDate DESC",
+                ProjectSummary.class)
+                .setMaxResults(count)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList());
+    }
+
+    private <T> T read(Function<EntityManager, T> report) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.unwrap(Session.class).setDefaultReadOnly(true);
+            return report.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+}
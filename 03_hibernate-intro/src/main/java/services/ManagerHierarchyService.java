@@ -0,0 +1,204 @@
+package services;
+
+import entities.Employee;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*Org chart queries over employees.manager_id. The whole chart is read
+  with one recursive CTE into an OrgTree and kept in memory, so subtree
+  and ancestor lookups do not touch the database. The cached tree is
+  dropped after a committed insert or delete of an Employee, or an update
+  that changes its manager. Bulk JPQL or native updates of manager_id
+  bypass those events and must call invalidate() themselves.
+  loadSubtree and loadAncestors read one part of the chart straight from
+  the database, also with a single recursive query.*/
+public class ManagerHierarchyService {
+    private static final String ORG_CHART_QUERY =
+            "WITH RECURSIVE org (employee_id, manager_id) AS (\n" +
+            "    SELECT e.employee_id, e.manager_id\n" +
+            "    FROM employees e\n" +
+            "    WHERE e.manager_id IS NULL\n" +
+            "    UNION ALL\n" +
+            "    SELECT e.employee_id, e.manager_id\n" +
+            "    FROM employees e\n" +
+            "    JOIN org o\n" +
+            "    ON e.manager_id = o.employee_id\n" +
+            ")\n" +
+            "SELECT employee_id, manager_id FROM org";
+
+    private static final String SUBTREE_QUERY =
+            "WITH RECURSIVE org (employee_id, manager_id) AS (\n" +
+            "    SELECT e.employee_id, e.manager_id\n" +
+            "    FROM employees e\n" +
+            "    WHERE e.employee_id = ?1\n" +
+            "    UNION ALL\n" +
+            "    SELECT e.employee_id, e.manager_id\n" +
+            "    FROM employees e\n" +
+            "    JOIN org o\n" +
+            "    ON e.manager_id = o.employee_id\n" +
+            ")\n" +
+            "SELECT employee_id, manager_id FROM org";
+
+    private static final String ANCESTORS_QUERY =
+            "WITH RECURSIVE chain (employee_id, manager_id, depth) AS (\n" +
+            "    SELECT e.employee_id, e.manager_id, 0\n" +
+            "    FROM employees e\n" +
+            "    WHERE e.employee_id = ?1\n" +
+            "    UNION ALL\n" +
+            "    SELECT e.employee_id, e.manager_id, c.depth + 1\n" +
+            "    FROM employees e\n" +
+            "    JOIN chain c\n" +
+            "    ON e.employee_id = c.manager_id\n" +
+            ")\n" +
+            "SELECT employee_id FROM chain WHERE depth > 0 ORDER BY depth";
+
+    private final EntityManagerFactory emf;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicReference<Cached> cached = new AtomicReference<>(new Cached(0, null));
+
+    public ManagerHierarchyService(EntityManagerFactory emf) {
+        this.emf = emf;
+        new ManagerChangeListener().register(emf);
+    }
+
+    public int[] reportsUnder(int managerId) {
+        return tree().reportsUnder(managerId);
+    }
+
+    public int[] directReports(int managerId) {
+        return tree().directReports(managerId);
+    }
+
+    public int[] managerChain(int employeeId) {
+        return tree().managerChain(employeeId);
+    }
+
+    /*The cached chart, loaded on first use. The load only publishes its
+      chart if no invalidation has happened since it started; otherwise
+      the chart may already be stale, so it is returned but not kept.
+      Invalidations never wait for a running load.*/
+    public OrgTree tree() {
+        OrgTree current = cached.get().tree;
+        if (current != null) {
+            return current;
+        }
+        loadLock.lock();
+        try {
+            Cached expected = cached.get();
+            if (expected.tree != null) {
+                return expected.tree;
+            }
+            OrgTree loaded = toTree(query(ORG_CHART_QUERY, null));
+            cached.compareAndSet(expected, new Cached(expected.version, loaded));
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        cached.updateAndGet(c -> new Cached(c.version + 1, null));
+    }
+
+    public boolean isLoaded() {
+        return cached.get().tree != null;
+    }
+
+    /*The employee and everyone under them, read from the database.*/
+    public OrgTree loadSubtree(int managerId) {
+        return toTree(query(SUBTREE_QUERY, managerId));
+    }
+
+    /*The employee's managers from the nearest up, read from the database.*/
+    public int[] loadAncestors(int employeeId) {
+        List<?> rows = query(ANCESTORS_QUERY, employeeId);
+        int[] chain = new int[rows.size()];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = ((Number) rows.get(i)).intValue();
+        }
+        return chain;
+    }
+
+    private List<?> query(String sql, Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            javax.persistence.Query query = em.createNativeQuery(sql);
+            if (id != null) {
+                query.setParameter(1, id);
+            }
+            return query.getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static OrgTree toTree(List<?> rows) {
+        int[] employeeIds = new int[rows.size()];
+        int[] managerIds = new int[rows.size()];
+        for (int i = 0; i < employeeIds.length; i++) {
+            Object[] row = (Object[]) rows.get(i);
+            employeeIds[i] = ((Number) row[0]).intValue();
+            managerIds[i] = row[1] == null ? 0 : ((Number) row[1]).intValue();
+        }
+        return new OrgTree(employeeIds, managerIds);
+    }
+
+    /*The cached chart together with the number of invalidations so far,
+      swapped as one so a load can tell whether it raced an invalidation.*/
+    private static final class Cached {
+        private final long version;
+        private final OrgTree tree;
+
+        private Cached(long version, OrgTree tree) {
+            this.version = version;
+            this.tree = tree;
+        }
+    }
+
+    private final class ManagerChangeListener extends EmployeeCommitListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Employee) {
+                invalidate();
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Employee && managerChanged(event)) {
+                invalidate();
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Employee) {
+                invalidate();
+            }
+        }
+
+        /*Without dirty-checking information any update may have moved
+          the employee.*/
+        private boolean managerChanged(PostUpdateEvent event) {
+            int[] dirty = event.getDirtyProperties();
+            if (dirty == null) {
+                return true;
+            }
+            int manager = event.getPersister().getEntityMetamodel().getPropertyIndex("manager");
+            for (int property : dirty) {
+                if (property == manager) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package services;
+
+import java.util.Arrays;
+
+/*Immutable employee -> manager forest held in plain int arrays. Employees
+  are addressed by their position in the sorted ids array; the children
+  of position i are children[childStart[i] .. childStart[i + 1]).*/
+public class OrgTree {
+    private static final int NO_MANAGER = -1;
+
+    private final int[] ids;
+    private final int[] parent;
+    private final int[] childStart;
+    private final int[] children;
+
+    /*managerIds[i] is the manager of employeeIds[i], or 0 for none. A
+      manager that is not among employeeIds is treated as no manager.*/
+    public OrgTree(int[] employeeIds, int[] managerIds) {
+        int size = employeeIds.length;
+        int[] order = sortedPositions(employeeIds);
+        this.ids = new int[size];
+        int[] managers = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = employeeIds[order[i]];
+            managers[i] = managerIds[order[i]];
+        }
+
+        this.parent = new int[size];
+        this.childStart = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            int managerIndex = managers[i] == 0 ? NO_MANAGER : Arrays.binarySearch(ids, managers[i]);
+            parent[i] = managerIndex < 0 ? NO_MANAGER : managerIndex;
+            if (parent[i] != NO_MANAGER) {
+                childStart[parent[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        this.children = new int[childStart[size]];
+        int[] next = Arrays.copyOf(childStart, size);
+        for (int i = 0; i < size; i++) {
+            if (parent[i] != NO_MANAGER) {
+                children[next[parent[i]]++] = i;
+            }
+        }
+    }
+
+    private static int[] sortedPositions(int[] values) {
+        long[] keyed = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keyed[i] = ((long) values[i] << 32) | i;
+        }
+        Arrays.sort(keyed);
+        int[] positions = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            positions[i] = (int) keyed[i];
+        }
+        return positions;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(int employeeId) {
+        return Arrays.binarySearch(ids, employeeId) >= 0;
+    }
+
+    /*Ids of everyone who reports to the employee directly or indirectly,
+      in breadth-first order. Empty for unknown ids.*/
+    public int[] reportsUnder(int employeeId) {
+        int index = Arrays.binarySearch(ids, employeeId);
+        if (index < 0) {
+            return new int[0];
+        }
+        int[] queue = new int[16];
+        int tail = 0;
+        for (int c = childStart[index]; c < childStart[index + 1]; c++) {
+            queue = append(queue, tail++, children[c]);
+        }
+        for (int head = 0; head < tail; head++) {
+            if (tail > ids.length) {
+                throw new IllegalStateException("Manager cycle under employee " + employeeId);
+            }
+            int current = queue[head];
+            for (int c = childStart[current]; c < childStart[current + 1]; c++) {
+                queue = append(queue, tail++, children[c]);
+            }
+        }
+        int[] result = new int[tail];
+        for (int i = 0; i < tail; i++) {
+            result[i] = ids[queue[i]];
+        }
+        return result;
+    }
+
+    public int[] directReports(int employeeId) {
+        int index = Arrays.binarySearch(ids, employeeId);
+        if (index < 0) {
+            return new int[0];
+        }
+        int[] result = new int[childStart[index + 1] - childStart[index]];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids[children[childStart[index] + i]];
+        }
+        return result;
+    }
+
+    /*Ids of the employee's manager, that manager's manager and so on up
+      to the top. Empty for unknown ids and for top-level employees.*/
+    public int[] managerChain(int employeeId) {
+        int index = Arrays.binarySearch(ids, employeeId);
+        if (index < 0) {
+            return new int[0];
+        }
+        int[] chain = new int[8];
+        int length = 0;
+        for (int current = parent[index]; current != NO_MANAGER; current = parent[current]) {
+            if (length == ids.length) {
+                throw new IllegalStateException("Manager cycle at employee " + employeeId);
+            }
+            chain = append(chain, length++, ids[current]);
+        }
+        return Arrays.copyOf(chain, length);
+    }
+
+    private static int[] append(int[] array, int position, int value) {
+        if (position == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[position] = value;
+        return array;
+    }
+}
@@ -0,0 +1,8 @@
+-- Indexes declared on the entities but missing from the stock soft_uni
+-- database. Schema generation is off for that unit, so run this once:
+--
+--   mysql -u root -p soft_uni < soft_uni-indexes.sql
+
+-- Problem 12: MAX(salary) per department (Employee @Table(indexes)).
+CREATE INDEX ix_employees_department_salary
+    ON employees (department_id, salary);
@@ -1,6 +1,7 @@
 import entities.BillingDetail;
 import entities.CreditCard;
 import entities.User;
+import metrics.HibernateMetrics;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -16,6 +17,17 @@ public class App {
         EntityManagerFactory managerFactory = Persistence
                 .createEntityManagerFactory("billspaymentsystem");
         em = managerFactory.createEntityManager();
+        new HibernateMetrics(managerFactory).printSummaryOnShutdown();
+        if (args.length > 0 && args[0].equals("--seed")) {
+            if (args.length < 2) {
+                System.out.println("Usage: --seed <users>");
+                return;
+            }
+            int inserted = new BillsPaymentSeeder(em).seed(Integer.parseInt(args[1]));
+            System.out.printf("Seeded %d rows%n", inserted);
+            return;
+        }
+
 
         User pesho = new User("Pesho", "Peshov",
                 "pesho123@abv.bg", "1234");
@@ -0,0 +1,36 @@
+import batch.BatchSeeder;
+import entities.CreditCard;
+import entities.User;
+
+import javax.persistence.EntityManager;
+import java.time.Month;
+import java.time.Year;
+
+/*Generated users, each owning a credit card. Bank accounts are left out:
+  the card columns of billing_details are NOT NULL, so they cannot be
+  inserted.*/
+public class BillsPaymentSeeder extends BatchSeeder {
+    private static final String[] CARD_TYPES = {"MasterCard", "Visa", "Maestro"};
+
+    public BillsPaymentSeeder(EntityManager em) {
+        super(em);
+    }
+
+    /*Inserts the given number of users with their credit cards.*/
+    @Override
+    protected void generate(int users) {
+        int thisYear = Year.now().getValue();
+        for (int i = 0; i < users; i++) {
+            User user = new User("User" + i, "Userov",
+                    "user" + i + "@bills.bg", "password" + i);
+            persist(user);
+
+            CreditCard card = new CreditCard(String.format("4%015d", i), user,
+                    CARD_TYPES[i % CARD_TYPES.length],
+                    Month.of(i % 12 + 1),
+                    Year.of(thisYear + i % 5));
+            user.getBillingDetails().add(card);
+            persist(card);
+        }
+    }
+}
@@ -32,10 +32,12 @@ public class BankAccount extends BillingDetail {
         this.bankName = bankName;
     }
 
+    /*Nullable because credit cards share the billing_details table; a
+      default value would collide with the unique constraint from the
+      second credit card on.*/
     @Column(name = "swift_code",
             unique = true,
-            nullable = false,
-            columnDefinition = "VARCHAR(50) default '-1'")
+            length = 50)
     public String getSwiftCode() {
         return swiftCode;
     }
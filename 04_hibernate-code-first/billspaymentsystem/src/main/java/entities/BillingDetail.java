@@ -24,6 +24,12 @@ public class BillingDetail implements DbEntity {
     }
 
     @Id
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "billing_details_ids")
+    @TableGenerator(name = "billing_details_ids",
+            table = "id_generators",
+            pkColumnValue = "billing_details",
+            allocationSize = 50)
     @Column
     @Override
     public long getId() {
@@ -32,7 +32,12 @@ public class User implements DbEntity {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "users_ids")
+    @TableGenerator(name = "users_ids",
+            table = "id_generators",
+            pkColumnValue = "users",
+            allocationSize = 50)
     @Column
     @Override
     public long getId() {
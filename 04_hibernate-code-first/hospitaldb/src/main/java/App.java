@@ -2,6 +2,7 @@ import entities.Diagnose;
 import entities.Medication;
 import entities.Patient;
 import entities.Visitation;
+import metrics.HibernateMetrics;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -14,6 +15,17 @@ public class App {
         EntityManagerFactory managerFactory = Persistence
                 .createEntityManagerFactory("hospital");
         em = managerFactory.createEntityManager();
+        new HibernateMetrics(managerFactory).printSummaryOnShutdown();
+        if (args.length > 0 && args[0].equals("--seed")) {
+            if (args.length < 2) {
+                System.out.println("Usage: --seed <patients>");
+                return;
+            }
+            int inserted = new HospitalSeeder(em).seed(Integer.parseInt(args[1]));
+            System.out.printf("Seeded %d rows%n", inserted);
+            return;
+        }
+
         Patient patient = new Patient(
                 "pesho", "peshov",
                 "pesho1@abv.bg", new Date(),
@@ -0,0 +1,36 @@
+import batch.BatchSeeder;
+import entities.Patient;
+import entities.Visitation;
+
+import javax.persistence.EntityManager;
+import java.util.Date;
+
+/*Generated patients, each with three visitations on consecutive days.*/
+public class HospitalSeeder extends BatchSeeder {
+    private static final int VISITATIONS_PER_PATIENT = 3;
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    public HospitalSeeder(EntityManager em) {
+        super(em);
+    }
+
+    /*Inserts the given number of patients with their visitations.*/
+    @Override
+    protected void generate(int patients) {
+        long today = System.currentTimeMillis();
+        for (int i = 0; i < patients; i++) {
+            Patient patient = new Patient(
+                    "Patient" + i, "Patientov",
+                    "patient" + i + "@hospital.bg",
+                    new Date(today - (i % 30_000) * DAY_MILLIS),
+                    i % 3 != 0);
+            persist(patient);
+            for (int v = 0; v < VISITATIONS_PER_PATIENT; v++) {
+                Visitation visitation = new Visitation(
+                        new Date(today - v * DAY_MILLIS), patient);
+                patient.getVisitations().add(visitation);
+                persist(visitation);
+            }
+        }
+    }
+}
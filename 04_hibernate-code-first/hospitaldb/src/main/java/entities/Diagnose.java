@@ -24,7 +24,12 @@ public class Diagnose implements DbEntity{
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "diagnoses_ids")
+    @TableGenerator(name = "diagnoses_ids",
+            table = "id_generators",
+            pkColumnValue = "diagnoses",
+            allocationSize = 50)
     @Column
     public long getId() {
         return id;
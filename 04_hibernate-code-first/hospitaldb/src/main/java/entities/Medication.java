@@ -21,6 +21,12 @@ public class Medication implements DbEntity {
     }
 
     @Id
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "medications_ids")
+    @TableGenerator(name = "medications_ids",
+            table = "id_generators",
+            pkColumnValue = "medications",
+            allocationSize = 50)
     @Column
     public long getId() {
         return this.id;
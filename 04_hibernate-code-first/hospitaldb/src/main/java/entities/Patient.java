@@ -41,7 +41,12 @@ public class Patient implements DbEntity{
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "patients_ids")
+    @TableGenerator(name = "patients_ids",
+            table = "id_generators",
+            pkColumnValue = "patients",
+            allocationSize = 50)
     @Column
     public long getId() {
         return id;
@@ -22,7 +22,12 @@ public class Visitation implements DbEntity{
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "visitations_ids")
+    @TableGenerator(name = "visitations_ids",
+            table = "id_generators",
+            pkColumnValue = "visitations",
+            allocationSize = 50)
     @Column
     public long getId() {
         return id;
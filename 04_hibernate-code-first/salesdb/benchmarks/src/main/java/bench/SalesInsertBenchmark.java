@@ -0,0 +1,105 @@
+package bench;
+
+import app.SalesSeeder;
+import org.hibernate.SessionFactory;
+import org.h2.tools.Server;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*SalesSeeder insert throughput with AUTO_INCREMENT ids and no batching
+  (sales_identity) against pooled table ids with JDBC batching and ordered
+  inserts (sales_batched). H2 runs as a TCP server on localhost, so every
+  statement pays a round trip as it would against MySQL, and every
+  iteration starts from an empty database. The rows counter is the number of entities inserted per second; the
+  setup prints how many JDBC statements one seed call needs.*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesInsertBenchmark {
+
+    @Param({"sales_identity", "sales_batched"})
+    public String unit;
+
+    @Param({"1000"})
+    public int sales;
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private SalesSeeder seeder;
+    private Server server;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Inserted {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startServer() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        openDatabase();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        int inserted = seeder.seed(sales);
+        System.out.printf("%n%s: %d entities inserted with %d JDBC statements%n",
+                unit, inserted, statistics.getPrepareStatementCount());
+        closeDatabase();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Setup(Level.Iteration)
+    public void openDatabase() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.connection.url",
+                "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:sales_" + System.nanoTime() + ";MODE=MySQL");
+        emf = Persistence.createEntityManagerFactory(unit, properties);
+        em = emf.createEntityManager();
+        seeder = new SalesSeeder(em);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeDatabase() {
+        em.close();
+        emf.close();
+    }
+
+    @Benchmark
+    public int seed(Inserted inserted) {
+        int rows = seeder.seed(sales);
+        inserted.rows += rows;
+        return rows;
+    }
+}
@@ -4,6 +4,7 @@ import entities.Customer;
 import entities.Product;
 import entities.Sale;
 import entities.StoreLocation;
+import metrics.HibernateMetrics;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -18,6 +19,17 @@ public class App {
         EntityManagerFactory managerFactory = Persistence
                 .createEntityManagerFactory("sales");
         em = managerFactory.createEntityManager();
+        new HibernateMetrics(managerFactory).printSummaryOnShutdown();
+        if (args.length > 0 && args[0].equals("--seed")) {
+            if (args.length < 2) {
+                System.out.println("Usage: --seed <sales>");
+                return;
+            }
+            int inserted = new SalesSeeder(em).seed(Integer.parseInt(args[1]));
+            System.out.printf("Seeded %d rows%n", inserted);
+            return;
+        }
+
 
         Product product = new Product("MacBook",
                 100, new BigDecimal("3499"));
@@ -0,0 +1,51 @@
+package app;
+
+import batch.BatchSeeder;
+import entities.Customer;
+import entities.Product;
+import entities.Sale;
+import entities.StoreLocation;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/*Generated sales. A new customer comes every 10 sales, a product every
+  20 and a store location every 100.*/
+public class SalesSeeder extends BatchSeeder {
+    private static final int SALES_PER_CUSTOMER = 10;
+    private static final int SALES_PER_PRODUCT = 20;
+    private static final int SALES_PER_STORE_LOCATION = 100;
+
+    public SalesSeeder(EntityManager em) {
+        super(em);
+    }
+
+    /*Inserts the given number of sales with their customers, products and
+      store locations.*/
+    @Override
+    protected void generate(int sales) {
+        Date now = new Date();
+        Customer customer = null;
+        Product product = null;
+        StoreLocation storeLocation = null;
+        for (int i = 0; i < sales; i++) {
+            if (i % SALES_PER_CUSTOMER == 0) {
+                customer = new Customer("Customer " + i,
+                        "customer" + i + "@sales.bg",
+                        String.format("%012d", i));
+                persist(customer);
+            }
+            if (i % SALES_PER_PRODUCT == 0) {
+                product = new Product("Product " + i,
+                        i % 100, new BigDecimal(i % 1000 + 1));
+                persist(product);
+            }
+            if (i % SALES_PER_STORE_LOCATION == 0) {
+                storeLocation = new StoreLocation("Store " + i);
+                persist(storeLocation);
+            }
+            persist(new Sale(product, customer, storeLocation, now));
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package entities;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.Column;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 
@@ -12,7 +16,18 @@ public abstract class BaseEntity {
 
     }
 
+    /*Pooled table ids with one id_generators row per entity table. A
+      JPA @TableGenerator here would give every subclass the same row.*/
     @Id
+    @GeneratedValue(generator = "table_ids")
+    @GenericGenerator(name = "table_ids",
+            strategy = "org.hibernate.id.enhanced.TableGenerator",
+            parameters = {
+                    @Parameter(name = "table_name", value = "id_generators"),
+                    @Parameter(name = "prefer_entity_table_as_segment_value", value = "true"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled")
+            })
     @Column
     public int getId() {
         return id;
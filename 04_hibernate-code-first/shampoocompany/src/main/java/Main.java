@@ -3,6 +3,7 @@ import ingredients.BasicIngredient;
 import ingredients.Mint;
 import ingredients.Nettle;
 import labels.BasicLabel;
+import metrics.HibernateMetrics;
 import shampoos.BasicShampoo;
 import shampoos.FreshNuke;
 
@@ -16,6 +17,17 @@ public class Main {
                 Persistence
                         .createEntityManagerFactory("shampoo_company");
         EntityManager em = managerFactory.createEntityManager();
+        new HibernateMetrics(managerFactory).printSummaryOnShutdown();
+        if (args.length > 0 && args[0].equals("--seed")) {
+            if (args.length < 2) {
+                System.out.println("Usage: --seed <shampoos>");
+                return;
+            }
+            int inserted = new ShampooSeeder(em).seed(Integer.parseInt(args[1]));
+            System.out.printf("Seeded %d rows%n", inserted);
+            return;
+        }
+
         em.getTransaction().begin();
 
         BasicIngredient am = new AmmoniumChloride();
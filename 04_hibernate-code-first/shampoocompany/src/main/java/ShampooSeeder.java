@@ -0,0 +1,61 @@
+import batch.BatchSeeder;
+import ingredients.AmmoniumChloride;
+import ingredients.BasicIngredient;
+import ingredients.Lavender;
+import ingredients.Mint;
+import ingredients.Nettle;
+import ingredients.Strawberry;
+import labels.BasicLabel;
+import shampoos.BasicShampoo;
+import shampoos.FiftyShades;
+import shampoos.FreshNuke;
+import shampoos.PinkPanther;
+
+import javax.persistence.EntityManager;
+
+/*Generated shampoos. One row per ingredient kind is inserted first and
+  shared by every shampoo; each shampoo gets its own label and three
+  ingredients.*/
+public class ShampooSeeder extends BatchSeeder {
+    private static final int INGREDIENTS_PER_SHAMPOO = 3;
+
+    public ShampooSeeder(EntityManager em) {
+        super(em);
+    }
+
+    /*Inserts the ingredients and the given number of shampoos with their
+      labels. The shampoo cascades to its label and to the ingredient
+      references, so the three are persisted together.*/
+    @Override
+    protected void generate(int shampoos) {
+        BasicIngredient[] ingredients = {
+                new AmmoniumChloride(), new Lavender(), new Mint(),
+                new Nettle(), new Strawberry()
+        };
+        long[] ingredientIds = new long[ingredients.length];
+        persist((Object[]) ingredients);
+        for (int i = 0; i < ingredients.length; i++) {
+            ingredientIds[i] = ingredients[i].getId();
+        }
+        for (int i = 0; i < shampoos; i++) {
+            BasicLabel label = new BasicLabel("Label " + i, "Batch " + i / 100);
+            BasicShampoo shampoo = newShampoo(i, label);
+            for (int k = 0; k < INGREDIENTS_PER_SHAMPOO; k++) {
+                shampoo.getIngredients().add(em.getReference(BasicIngredient.class,
+                        ingredientIds[(i + k) % ingredientIds.length]));
+            }
+            persist(label, shampoo);
+        }
+    }
+
+    private static BasicShampoo newShampoo(int i, BasicLabel label) {
+        switch (i % 3) {
+            case 0:
+                return new FreshNuke(label);
+            case 1:
+                return new FiftyShades(label);
+            default:
+                return new PinkPanther(label);
+        }
+    }
+}
@@ -26,7 +26,12 @@ public class BasicLabel implements Label {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "labels_ids")
+    @TableGenerator(name = "labels_ids",
+            table = "id_generators",
+            pkColumnValue = "labels",
+            allocationSize = 50)
     @Column
     @Override
     public long getId() {
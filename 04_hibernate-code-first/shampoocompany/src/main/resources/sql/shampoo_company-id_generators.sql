@@ -0,0 +1,30 @@
+-- Moves the id generators of shampoo_company past the existing keys.
+-- Before GenerationType.TABLE the ingredients, labels and shampoos ids
+-- came from AUTO_INCREMENT, and hbm2ddl.auto=update keeps those rows,
+-- so a new id_generators table would hand out ids that are taken.
+-- Run it once on a database created before the switch, before the app
+-- (this module or the 04_hibernate-code-first root) starts on it:
+--
+--   mysql -u root -p shampoo_company < shampoo_company-id_generators.sql
+--
+-- With allocationSize 50 the pooled optimizer starts handing out ids at
+-- next_val - 48, so each row is set to MAX(id) + 50. Existing rows are
+-- only ever moved forward.
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'ingredients', MAX(id) + 50 FROM ingredients HAVING MAX(id) IS NOT NULL
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'labels', MAX(id) + 50 FROM labels HAVING MAX(id) IS NOT NULL
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'shampoos', MAX(id) + 50 FROM shampoos HAVING MAX(id) IS NOT NULL
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
@@ -1,5 +1,6 @@
 package shampoocompany;
 
+import metrics.HibernateMetrics;
 import shampoocompany.ingredients.AmmoniumChloride;
 import shampoocompany.ingredients.BasicIngredient;
 import shampoocompany.ingredients.Mint;
@@ -18,6 +19,7 @@ public class Main {
                 Persistence
                         .createEntityManagerFactory("shampoo_company");
         EntityManager em = managerFactory.createEntityManager();
+        new HibernateMetrics(managerFactory).printSummaryOnShutdown();
         em.getTransaction().begin();
 
         BasicIngredient am = new AmmoniumChloride();
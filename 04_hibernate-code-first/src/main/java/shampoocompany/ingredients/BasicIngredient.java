@@ -28,8 +28,13 @@ public class BasicIngredient {
     }
 
     @Id
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "ingredients_ids")
+    @TableGenerator(name = "ingredients_ids",
+            table = "id_generators",
+            pkColumnValue = "ingredients",
+            allocationSize = 50)
     @Column
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     public long getId() {
         return id;
     }
@@ -39,8 +39,13 @@ public class BasicShampoo implements Shampoo {
     }
 
     @Id
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "shampoos_ids")
+    @TableGenerator(name = "shampoos_ids",
+            table = "id_generators",
+            pkColumnValue = "shampoos",
+            allocationSize = 50)
     @Column
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Override
     public long getId() {
         return this.id;
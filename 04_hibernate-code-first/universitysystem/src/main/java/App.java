@@ -1,6 +1,7 @@
 import entities.Course;
 import entities.Student;
 import entities.Teacher;
+import metrics.HibernateMetrics;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -16,6 +17,17 @@ public class App {
         EntityManagerFactory managerFactory =
                 Persistence.createEntityManagerFactory("university");
         em = managerFactory.createEntityManager();
+        new HibernateMetrics(managerFactory).printSummaryOnShutdown();
+        if (args.length > 0 && args[0].equals("--seed")) {
+            if (args.length < 2) {
+                System.out.println("Usage: --seed <courses>");
+                return;
+            }
+            int inserted = new UniversitySeeder(em).seed(Integer.parseInt(args[1]));
+            System.out.printf("Seeded %d rows%n", inserted);
+            return;
+        }
+
 
         Teacher teacher = new Teacher(
                 "Pesho",
@@ -0,0 +1,50 @@
+import batch.BatchSeeder;
+import entities.Course;
+import entities.Student;
+import entities.Teacher;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/*Generated courses, a teacher for every five of them and twenty new
+  students in each. Students are persisted before the course that enrolls
+  them, so the students_courses rows are written with the course.*/
+public class UniversitySeeder extends BatchSeeder {
+    private static final int COURSES_PER_TEACHER = 5;
+    private static final int STUDENTS_PER_COURSE = 20;
+
+    public UniversitySeeder(EntityManager em) {
+        super(em);
+    }
+
+    /*Inserts the given number of courses with their teachers and
+      students.*/
+    @Override
+    protected void generate(int courses) {
+        Date now = new Date();
+        Teacher teacher = null;
+        for (int i = 0; i < courses; i++) {
+            if (i % COURSES_PER_TEACHER == 0) {
+                teacher = new Teacher("Teacher" + i, "Teacherov",
+                        String.format("08%08d", i),
+                        "teacher" + i + "@university.bg",
+                        new BigDecimal(10 + i % 40));
+                persist(teacher);
+            }
+            Course course = new Course("Course " + i,
+                    "Description of course " + i,
+                    now, now, 5 + i % 10);
+            course.setTeacher(teacher);
+            for (int s = 0; s < STUDENTS_PER_COURSE; s++) {
+                int number = i * STUDENTS_PER_COURSE + s;
+                Student student = new Student("Student" + number, "Studentov",
+                        String.format("09%08d", number),
+                        2 + number % 5, number % 30);
+                persist(student);
+                course.getStudents().add(student);
+            }
+            persist(course);
+        }
+    }
+}
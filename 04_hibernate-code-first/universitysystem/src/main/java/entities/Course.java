@@ -35,6 +35,12 @@ public class Course implements DbEntity {
     }
 
     @Id
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "courses_ids")
+    @TableGenerator(name = "courses_ids",
+            table = "id_generators",
+            pkColumnValue = "courses",
+            allocationSize = 50)
     @Column
     @Override
     public int getId() {
@@ -29,6 +29,12 @@ public class Student extends BasePerson
     }
 
     @Id
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "students_ids")
+    @TableGenerator(name = "students_ids",
+            table = "id_generators",
+            pkColumnValue = "students",
+            allocationSize = 50)
     @Column
     @Override
     public int getId() {
@@ -32,6 +32,12 @@ public class Teacher extends BasePerson
     }
 
     @Id
+    @GeneratedValue(strategy = GenerationType.TABLE,
+            generator = "teachers_ids")
+    @TableGenerator(name = "teachers_ids",
+            table = "id_generators",
+            pkColumnValue = "teachers",
+            allocationSize = 50)
     @Column
     @Override
     public int getId() {
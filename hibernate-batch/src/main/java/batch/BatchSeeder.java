@@ -0,0 +1,68 @@
+package batch;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+/*Inserts generated entities in one transaction, flushing and clearing
+  the persistence context once hibernate.jdbc.batch_size entities are
+  pending. Subclasses only build the entity graph in generate() and hand
+  it to persist().*/
+public abstract class BatchSeeder {
+    public static final String BATCH_SIZE_PROPERTY = "hibernate.jdbc.batch_size";
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    protected final EntityManager em;
+    private final int batchSize;
+    private int persisted;
+    private int pending;
+
+    protected BatchSeeder(EntityManager em) {
+        this.em = em;
+        Object configured = em.getEntityManagerFactory()
+                .getProperties()
+                .get(BATCH_SIZE_PROPERTY);
+        this.batchSize = configured == null ?
+                DEFAULT_BATCH_SIZE :
+                Integer.parseInt(configured.toString());
+    }
+
+    /*Runs generate(count) and commits. Returns the number of entities
+      inserted.*/
+    public int seed(int count) {
+        persisted = 0;
+        pending = 0;
+
+        EntityTransaction transaction = em.getTransaction();
+        transaction.begin();
+        try {
+            generate(count);
+            em.flush();
+            em.clear();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+        return persisted;
+    }
+
+    protected abstract void generate(int count);
+
+    /*Entities passed in one call are all persisted before the next flush,
+      so one that cascades to or references the others can be persisted
+      together with them.*/
+    protected void persist(Object... entities) {
+        for (Object entity : entities) {
+            em.persist(entity);
+        }
+        persisted += entities.length;
+        pending += entities.length;
+        if (pending >= batchSize) {
+            em.flush();
+            em.clear();
+            pending = 0;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package metrics;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.SortedMap;
+
+/*Collects the statistics of one EntityManagerFactory into a
+  MetricsRegistry: per-entity and per-collection load and fetch counts,
+  per-query execution counts and times, second-level cache hit ratios and
+  session totals. Entities, queries and cache regions show up while the
+  application runs, so their gauges are added on every collect().
+  The persistence unit must set hibernate.generate_statistics, otherwise
+  every counter stays at zero.*/
+public class HibernateMetrics {
+    /*Entities or collections read one at a time at least this often are
+      reported as possible N+1 selects.*/
+    private static final long N_PLUS_ONE_FETCHES = 10;
+
+    private final Statistics statistics;
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    public HibernateMetrics(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        registry.gauge("session.opened", statistics::getSessionOpenCount);
+        registry.gauge("session.flushes", statistics::getFlushCount);
+        registry.gauge("session.statements", statistics::getPrepareStatementCount);
+        registry.gauge("session.transactions", statistics::getTransactionCount);
+        registry.gauge("query.executions", statistics::getQueryExecutionCount);
+        registry.gauge("query.max_ms", statistics::getQueryExecutionMaxTime);
+        if (statistics instanceof SlowQueryStatistics) {
+            SlowQueryStatistics slowQueries = (SlowQueryStatistics) statistics;
+            registry.gauge("query.slow", slowQueries::getSlowQueryCount);
+            registry.gauge("query.slow_threshold_ms", slowQueries::getThresholdMs);
+        }
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    public boolean isEnabled() {
+        return statistics.isStatisticsEnabled();
+    }
+
+    /*Registers gauges for everything Hibernate has seen so far and returns
+      their current values.*/
+    public SortedMap<String, Number> collect() {
+        for (String entity : statistics.getEntityNames()) {
+            registerEntity(entity);
+        }
+        for (String role : statistics.getCollectionRoleNames()) {
+            registerCollection(role);
+        }
+        for (String query : statistics.getQueries()) {
+            registerQuery(query);
+        }
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            registerCacheRegion(region);
+        }
+        return registry.snapshot();
+    }
+
+    private void registerEntity(String entity) {
+        String prefix = "entity." + entity;
+        if (registry.contains(prefix + ".loads")) {
+            return;
+        }
+        EntityStatistics entityStatistics = statistics.getEntityStatistics(entity);
+        registry.gauge(prefix + ".loads", entityStatistics::getLoadCount);
+        registry.gauge(prefix + ".fetches", entityStatistics::getFetchCount);
+        registry.gauge(prefix + ".inserts", entityStatistics::getInsertCount);
+        registry.gauge(prefix + ".updates", entityStatistics::getUpdateCount);
+        registry.gauge(prefix + ".deletes", entityStatistics::getDeleteCount);
+    }
+
+    private void registerCollection(String role) {
+        String prefix = "collection." + role;
+        if (registry.contains(prefix + ".loads")) {
+            return;
+        }
+        CollectionStatistics collectionStatistics = statistics.getCollectionStatistics(role);
+        registry.gauge(prefix + ".loads", collectionStatistics::getLoadCount);
+        registry.gauge(prefix + ".fetches", collectionStatistics::getFetchCount);
+    }
+
+    private void registerQuery(String query) {
+        String prefix = "query[" + query + "]";
+        if (registry.contains(prefix + ".executions")) {
+            return;
+        }
+        QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+        registry.gauge(prefix + ".executions", queryStatistics::getExecutionCount);
+        registry.gauge(prefix + ".rows", queryStatistics::getExecutionRowCount);
+        registry.gauge(prefix + ".total_ms", queryStatistics::getExecutionTotalTime);
+        registry.gauge(prefix + ".avg_ms", queryStatistics::getExecutionAvgTimeAsDouble);
+        registry.gauge(prefix + ".max_ms", queryStatistics::getExecutionMaxTime);
+    }
+
+    private void registerCacheRegion(String region) {
+        String prefix = "cache." + region;
+        if (registry.contains(prefix + ".hits")) {
+            return;
+        }
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        if (regionStatistics == null) {
+            return;
+        }
+        registry.gauge(prefix + ".hits", regionStatistics::getHitCount);
+        registry.gauge(prefix + ".misses", regionStatistics::getMissCount);
+        registry.gauge(prefix + ".puts", regionStatistics::getPutCount);
+        registry.gauge(prefix + ".hit_ratio", () -> {
+            long lookups = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+            return lookups == 0 ? 0 : regionStatistics.getHitCount() / (double) lookups;
+        });
+    }
+
+    /*A plain-text report of the current values, listing only entities,
+      collections, queries and cache regions that were used.*/
+    public String summary() {
+        if (!isEnabled()) {
+            return "Hibernate statistics are disabled, set hibernate.generate_statistics=true\n";
+        }
+        SortedMap<String, Number> values = collect();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Hibernate statistics%n"));
+        out.append(String.format("  %d sessions, %d transactions, %d flushes, %d JDBC statements%n",
+                statistics.getSessionOpenCount(),
+                statistics.getTransactionCount(),
+                statistics.getFlushCount(),
+                statistics.getPrepareStatementCount()));
+        out.append(String.format("  %d queries, slowest %d ms",
+                statistics.getQueryExecutionCount(),
+                statistics.getQueryExecutionMaxTime()));
+        if (values.containsKey("query.slow")) {
+            out.append(String.format(", %s at or over %s ms",
+                    values.get("query.slow"), values.get("query.slow_threshold_ms")));
+        }
+        out.append(String.format("%n"));
+
+        appendEntities(out);
+        appendCollections(out);
+        appendQueries(out);
+        appendCacheRegions(out);
+        appendNPlusOneSuspects(out);
+        return out.toString();
+    }
+
+    private void appendEntities(StringBuilder out) {
+        boolean header = false;
+        for (String entity : statistics.getEntityNames()) {
+            EntityStatistics e = statistics.getEntityStatistics(entity);
+            if (e.getLoadCount() + e.getFetchCount() + e.getInsertCount()
+                    + e.getUpdateCount() + e.getDeleteCount() == 0) {
+                continue;
+            }
+            if (!header) {
+                out.append(String.format("  %-50s %8s %8s %8s %8s %8s%n",
+                        "Entity", "loads", "fetches", "inserts", "updates", "deletes"));
+                header = true;
+            }
+            out.append(String.format("  %-50s %8d %8d %8d %8d %8d%n", entity,
+                    e.getLoadCount(), e.getFetchCount(), e.getInsertCount(),
+                    e.getUpdateCount(), e.getDeleteCount()));
+        }
+    }
+
+    private void appendCollections(StringBuilder out) {
+        boolean header = false;
+        for (String role : statistics.getCollectionRoleNames()) {
+            CollectionStatistics c = statistics.getCollectionStatistics(role);
+            if (c.getLoadCount() + c.getFetchCount() == 0) {
+                continue;
+            }
+            if (!header) {
+                out.append(String.format("  %-50s %8s %8s%n", "Collection", "loads", "fetches"));
+                header = true;
+            }
+            out.append(String.format("  %-50s %8d %8d%n", role,
+                    c.getLoadCount(), c.getFetchCount()));
+        }
+    }
+
+    private void appendQueries(StringBuilder out) {
+        boolean header = false;
+        for (String query : statistics.getQueries()) {
+            QueryStatistics q = statistics.getQueryStatistics(query);
+            if (q.getExecutionCount() == 0) {
+                continue;
+            }
+            if (!header) {
+                out.append(String.format("  %8s %10s %10s %10s  %s%n",
+                        "runs", "rows", "avg ms", "max ms", "Query"));
+                header = true;
+            }
+            out.append(String.format("  %8d %10d %10.1f %10d  %s%n",
+                    q.getExecutionCount(), q.getExecutionRowCount(),
+                    q.getExecutionAvgTimeAsDouble(), q.getExecutionMaxTime(),
+                    query.replaceAll("\\s+", " ")));
+        }
+    }
+
+    private void appendCacheRegions(StringBuilder out) {
+        boolean header = false;
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics r = statistics.getCacheRegionStatistics(region);
+            if (r == null) {
+                continue;
+            }
+            if (!header) {
+                out.append(String.format("  %-50s %8s %8s %8s %9s%n",
+                        "Cache region", "hits", "misses", "puts", "hit ratio"));
+                header = true;
+            }
+            long lookups = r.getHitCount() + r.getMissCount();
+            out.append(String.format("  %-50s %8d %8d %8d %8.1f%%%n", region,
+                    r.getHitCount(), r.getMissCount(), r.getPutCount(),
+                    lookups == 0 ? 0 : r.getHitCount() * 100.0 / lookups));
+        }
+    }
+
+    /*A fetch is a row or collection read on its own by id, after the
+      query that returned its owner. Many of them usually mean a lazy
+      association walked in a loop.*/
+    private void appendNPlusOneSuspects(StringBuilder out) {
+        for (String entity : statistics.getEntityNames()) {
+            long fetches = statistics.getEntityStatistics(entity).getFetchCount();
+            if (fetches >= N_PLUS_ONE_FETCHES) {
+                out.append(String.format("  Possible N+1: %s fetched one at a time %d times%n",
+                        entity, fetches));
+            }
+        }
+        for (String role : statistics.getCollectionRoleNames()) {
+            long fetches = statistics.getCollectionStatistics(role).getFetchCount();
+            if (fetches >= N_PLUS_ONE_FETCHES) {
+                out.append(String.format("  Possible N+1: %s fetched one at a time %d times%n",
+                        role, fetches));
+            }
+        }
+    }
+
+    /*Prints the summary to stdout when the JVM exits. The factory is
+      usually left open until then; once it is closed, Hibernate can no
+      longer resolve entity names and only that is printed.*/
+    public void printSummaryOnShutdown() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                System.out.print(summary());
+            } catch (RuntimeException e) {
+                System.out.println("Hibernate statistics unavailable: " + e);
+            }
+        }, "hibernate-metrics"));
+    }
+}
@@ -0,0 +1,28 @@
+package metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/*Named gauges, read only when a snapshot is taken. Names are dotted
+  paths such as entity.entities.Employee.loads, kept in sorted order so
+  related metrics print next to each other.*/
+public class MetricsRegistry {
+    private final Map<String, Supplier<? extends Number>> gauges = new TreeMap<>();
+
+    /*Registers the gauge unless one with that name already exists.*/
+    public synchronized void gauge(String name, Supplier<? extends Number> value) {
+        gauges.putIfAbsent(name, value);
+    }
+
+    public synchronized boolean contains(String name) {
+        return gauges.containsKey(name);
+    }
+
+    public synchronized SortedMap<String, Number> snapshot() {
+        SortedMap<String, Number> values = new TreeMap<>();
+        gauges.forEach((name, value) -> values.put(name, value.get()));
+        return values;
+    }
+}
@@ -0,0 +1,68 @@
+package metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*Hibernate's statistics with a slow query log on top. Every HQL, JPQL or
+  native query that runs for at least the threshold is logged at WARN
+  with its time and row count, and counted. Hibernate 5.4.1 has no slow query
+  setting of its own, so the persistence unit plugs this in with
+
+    hibernate.stats.factory = metrics.SlowQueryStatistics$Factory
+    hibernate.metrics.slow_query_threshold_ms = 100*/
+public class SlowQueryStatistics extends StatisticsImpl {
+    public static final String THRESHOLD_PROPERTY = "hibernate.metrics.slow_query_threshold_ms";
+    public static final long DEFAULT_THRESHOLD_MS = 100;
+
+    private static final Logger LOG = Logger.getLogger(SlowQueryStatistics.class);
+
+    private final long thresholdMs;
+    private final AtomicLong slowQueryCount = new AtomicLong();
+
+    public SlowQueryStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+        Object configured = sessionFactory.getProperties().get(THRESHOLD_PROPERTY);
+        this.thresholdMs = configured == null ?
+                DEFAULT_THRESHOLD_MS :
+                Long.parseLong(configured.toString().trim());
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        if (time >= thresholdMs) {
+            slowQueryCount.incrementAndGet();
+            LOG.warnf("Slow query (%d ms, %d rows): %s", time, rows, hql);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        // StatisticsImpl calls clear() from its constructor, before this
+        // class has set its fields.
+        if (slowQueryCount != null) {
+            slowQueryCount.set(0);
+        }
+    }
+
+    public long getThresholdMs() {
+        return thresholdMs;
+    }
+
+    public long getSlowQueryCount() {
+        return slowQueryCount.get();
+    }
+
+    public static class Factory implements StatisticsFactory {
+        @Override
+        public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+            return new SlowQueryStatistics(sessionFactory);
+        }
+    }
+}